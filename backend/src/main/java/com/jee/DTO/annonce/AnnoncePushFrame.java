@@ -0,0 +1,15 @@
+package com.jee.DTO.annonce;
+
+// Trame envoyée sur /messaging/ws ; type "annonce" pour une annonce d'un CTF rejoint
+public class AnnoncePushFrame {
+    public String type;
+    public AnnonceResponse annonce;
+
+    public AnnoncePushFrame() {
+    }
+
+    public AnnoncePushFrame(AnnonceResponse annonce) {
+        this.type = "annonce";
+        this.annonce = annonce;
+    }
+}
@@ -0,0 +1,15 @@
+package com.jee.DTO.annonce;
+
+import java.time.Instant;
+
+public class AnnonceResponse {
+    public Long id;
+    public Long ctfId;
+    public String ctfTitre;
+    public String auteurPseudo;
+    public String content;
+    public Instant createdAt;
+    // Participants atteints jusqu'ici ; delivered passe à true quand la distribution est terminée
+    public int recipientCount;
+    public boolean delivered;
+}
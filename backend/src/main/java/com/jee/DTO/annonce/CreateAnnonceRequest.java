@@ -0,0 +1,5 @@
+package com.jee.DTO.annonce;
+
+public class CreateAnnonceRequest {
+    public String content;
+}
@@ -1,15 +1,30 @@
 package com.jee.DTO.ctf;
 
+import com.jee.entity.enums.CtfStatut;
+
 public class CtfInfoResponse {
     public Long id;
     public String titre;
     public String description;
     public String lieu;
     public int nbVues;
+    public long nbVuesUniques; // estimation HyperLogLog
     public String statut;
     public String organisateurPseudo;
 
     public CtfInfoResponse() {
     }
 
+    // Constructeur utilisé par la projection JPQL (SELECT new ...)
+    public CtfInfoResponse(Long id, String titre, String description, String lieu, int nbVues,
+                           CtfStatut statut, String organisateurPseudo) {
+        this.id = id;
+        this.titre = titre;
+        this.description = description;
+        this.lieu = lieu;
+        this.nbVues = nbVues;
+        this.statut = statut.name();
+        this.organisateurPseudo = organisateurPseudo;
+    }
+
 }
@@ -0,0 +1,10 @@
+package com.jee.DTO.defi;
+
+public class DefiCreateRequest {
+    public String titre;
+    public int points;
+    public String flag;
+    public Integer pointsMin; // optionnel : points dégressifs
+    public Integer decroissance; // nombre de résolutions pour atteindre pointsMin
+    public Long ctfId; // optionnel
+}
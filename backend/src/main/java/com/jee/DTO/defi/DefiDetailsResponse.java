@@ -4,4 +4,8 @@ public class DefiDetailsResponse {
     public Long id;
     public String titre;
     public int points;
+    public Integer pointsMin;
+    public int decroissance;
+    public int pointsActuels;
+    public Long ctfId;
 }
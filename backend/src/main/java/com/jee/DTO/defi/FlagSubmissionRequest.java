@@ -0,0 +1,5 @@
+package com.jee.DTO.defi;
+
+public class FlagSubmissionRequest {
+    public String flag;
+}
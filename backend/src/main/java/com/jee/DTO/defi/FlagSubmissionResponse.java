@@ -0,0 +1,13 @@
+package com.jee.DTO.defi;
+
+public class FlagSubmissionResponse {
+    public boolean correct;
+    public int points;
+    public int ordre; // 1 pour le premier sang, 0 si le flag est faux
+
+    public FlagSubmissionResponse(boolean correct, int points, int ordre) {
+        this.correct = correct;
+        this.points = points;
+        this.ordre = ordre;
+    }
+}
@@ -0,0 +1,15 @@
+package com.jee.DTO.defi;
+
+import java.time.Instant;
+
+public class PodiumEntryResponse {
+    public int ordre;
+    public String pseudo;
+    public Instant solvedAt;
+
+    public PodiumEntryResponse(int ordre, String pseudo, Instant solvedAt) {
+        this.ordre = ordre;
+        this.pseudo = pseudo;
+        this.solvedAt = solvedAt;
+    }
+}
@@ -0,0 +1,13 @@
+package com.jee.DTO.journal;
+
+public class JournalReplayResponse {
+    public long records;
+    public long corrupted;
+    public long solvesRecovered;
+
+    public JournalReplayResponse(long records, long corrupted, long solvesRecovered) {
+        this.records = records;
+        this.corrupted = corrupted;
+        this.solvesRecovered = solvesRecovered;
+    }
+}
@@ -10,4 +10,6 @@ public class ConversationDetailsResponse {
     public String otherUserRole;
     public Instant createdAt;
     public List<MessageResponse> messages;
+    // Id à passer dans before pour charger les messages plus anciens, null s'il n'y en a pas
+    public String nextCursor;
 }
\ No newline at end of file
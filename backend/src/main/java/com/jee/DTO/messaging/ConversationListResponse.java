@@ -7,6 +7,7 @@ public class ConversationListResponse {
     public String otherUserEmail;
     public String otherUserPseudo;
     public String otherUserRole;
+    public String lastMessagePreview;
     public Instant lastMessageAt;
     public int unreadCount;
 }
\ No newline at end of file
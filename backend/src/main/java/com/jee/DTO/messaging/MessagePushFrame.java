@@ -0,0 +1,17 @@
+package com.jee.DTO.messaging;
+
+// Trame envoyée sur /messaging/ws ; type "message" pour un nouveau message reçu
+public class MessagePushFrame {
+    public String type;
+    public Long conversationId;
+    public MessageResponse message;
+
+    public MessagePushFrame() {
+    }
+
+    public MessagePushFrame(String type, Long conversationId, MessageResponse message) {
+        this.type = type;
+        this.conversationId = conversationId;
+        this.message = message;
+    }
+}
@@ -0,0 +1,27 @@
+package com.jee.DTO.pagination;
+
+import jakarta.ws.rs.QueryParam;
+
+// Pagination d'un historique de messages par id, injectée via @BeanParam
+public class MessagePageRequest {
+
+    // Messages d'id strictement inférieur : page précédente (plus ancienne)
+    @QueryParam("before")
+    public Long before;
+
+    // Messages d'id strictement supérieur : nouveaux messages depuis le dernier reçu
+    @QueryParam("after")
+    public Long after;
+
+    @QueryParam("limit")
+    public Integer limit;
+
+    public MessagePageRequest() {
+    }
+
+    public MessagePageRequest(Long before, Long after, Integer limit) {
+        this.before = before;
+        this.after = after;
+        this.limit = limit;
+    }
+}
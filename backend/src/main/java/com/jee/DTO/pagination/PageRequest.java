@@ -0,0 +1,29 @@
+package com.jee.DTO.pagination;
+
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.QueryParam;
+
+// Paramètres de pagination par curseur (keyset), injectés via @BeanParam
+public class PageRequest {
+
+    // Curseur opaque renvoyé dans l'en-tête X-Next-Cursor de la page précédente
+    @QueryParam("cursor")
+    public String cursor;
+
+    @QueryParam("limit")
+    public Integer limit;
+
+    // asc ou desc, sur la clé de tri stable de la liste (id ou email)
+    @QueryParam("order")
+    @DefaultValue("asc")
+    public String order;
+
+    public PageRequest() {
+    }
+
+    public PageRequest(String cursor, Integer limit, String order) {
+        this.cursor = cursor;
+        this.limit = limit;
+        this.order = order;
+    }
+}
@@ -0,0 +1,16 @@
+package com.jee.DTO.scoreboard;
+
+// Série d'un participant du haut du classement : instants (epoch ms) et scores, de même longueur
+public class ScoreHistoryResponse {
+    public int rang;
+    public String pseudo;
+    public long[] t;
+    public long[] score;
+
+    public ScoreHistoryResponse(int rang, String pseudo, long[] t, long[] score) {
+        this.rang = rang;
+        this.pseudo = pseudo;
+        this.t = t;
+        this.score = score;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jee.DTO.scoreboard;
+
+import java.time.Instant;
+
+public class ScoreboardEntryResponse {
+    public int rang;
+    public String pseudo;
+    public int score;
+    public Instant lastSolveAt;
+
+    public ScoreboardEntryResponse(int rang, String pseudo, int score, Instant lastSolveAt) {
+        this.rang = rang;
+        this.pseudo = pseudo;
+        this.score = score;
+        this.lastSolveAt = lastSolveAt;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jee.DTO.scoreboard;
+
+import java.util.List;
+
+/*
+ * Trame du flux SSE d'un classement : "snapshot" (le haut du classement) puis des "delta" (entrées modifiées).
+ * Une trame "podium" annonce l'un des trois premiers résolveurs du défi defiId (rang = ordre de résolution).
+ */
+public class ScoreboardFrame {
+    public String type;
+    public long seq;
+    public Long defiId;
+    public int size;
+    public List<ScoreboardEntryResponse> entries;
+
+    public ScoreboardFrame(String type, long seq, int size, List<ScoreboardEntryResponse> entries) {
+        this.type = type;
+        this.seq = seq;
+        this.size = size;
+        this.entries = entries;
+    }
+}
@@ -7,6 +7,8 @@ import com.jee.DTO.auth.RegisterParticipantRequest;
 import com.jee.entity.User;
 import com.jee.service.AuthService;
 import com.jee.service.JwtService;
+import com.jee.service.RateLimits;
+import io.vertx.core.http.HttpServerRequest;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -14,6 +16,7 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -28,6 +31,12 @@ public class AuthController {
     @Inject
     JwtService jwtService;
 
+    @Inject
+    RateLimits rateLimits;
+
+    @Context
+    HttpServerRequest httpRequest;
+
     @POST
     @Path("/register/participant")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -67,6 +76,9 @@ public class AuthController {
     @Consumes(MediaType.APPLICATION_JSON)
     @Path("/login")
     public Response login(LoginRequest body) {
+        String remoteAddress = httpRequest.remoteAddress() == null ? null : httpRequest.remoteAddress().host();
+        rateLimits.checkLogin(body.email, rateLimits.clientAddress(remoteAddress, httpRequest.getHeader("X-Forwarded-For")));
+
         User user = authService.authenticate(
                 body.email,
                 body.password
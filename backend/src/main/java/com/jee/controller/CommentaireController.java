@@ -1,6 +1,9 @@
 package com.jee.controller;
 
+import com.jee.DTO.commentaire.CommentContentResponse;
 import com.jee.DTO.commentaire.CreateCommentRequest;
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.repository.KeysetPage;
 import com.jee.service.CommentaireService;
 import io.quarkus.security.Authenticated;
 import jakarta.inject.Inject;
@@ -32,8 +35,9 @@ public class CommentaireController {
 
     @GET
     @Path("/ctf/{ctfId}")
-    public Response getCommentsForCtf(@PathParam("ctfId") Long ctfId) {
-        return Response.ok(commentaireService.getCommentsForCtf(ctfId)).build();
+    public Response getCommentsForCtf(@PathParam("ctfId") Long ctfId, @BeanParam PageRequest page) {
+        KeysetPage<CommentContentResponse> comments = commentaireService.getCommentsForCtf(ctfId, page);
+        return Response.ok(comments.items).header(KeysetPage.NEXT_CURSOR_HEADER, comments.nextCursor).build();
     }
 
     @GET
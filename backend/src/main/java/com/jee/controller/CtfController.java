@@ -1,19 +1,36 @@
 package com.jee.controller;
 
+import com.jee.DTO.annonce.AnnonceResponse;
+import com.jee.DTO.annonce.CreateAnnonceRequest;
 import com.jee.DTO.ctf.CtfCreateRequest;
 import com.jee.DTO.ctf.CtfInfoResponse;
 import com.jee.DTO.ctf.UpdateCtfRequest;
 import com.jee.DTO.ctf.ValidationCtfRequest;
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.DTO.participation.ParticipationInfoResponse;
+import com.jee.DTO.scoreboard.ScoreboardFrame;
 import com.jee.entity.enums.CtfStatut;
 import com.jee.entity.enums.ParticipationFilter;
+import com.jee.filter.Aggregate;
+import com.jee.filter.ConditionalGet;
+import com.jee.repository.KeysetPage;
+import com.jee.service.AnnonceService;
 import com.jee.service.CtfService;
+import com.jee.service.ScoreHistory;
+import com.jee.service.ScoreboardService;
+import com.jee.service.ScoreboardStream;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
 import io.quarkus.security.Authenticated;
 import io.quarkus.security.identity.SecurityIdentity;
+import io.vertx.core.http.HttpServerRequest;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 
 @Path("/ctfs")
 @Consumes(MediaType.APPLICATION_JSON)
@@ -23,7 +40,17 @@ public class CtfController {
     @Inject
     CtfService ctfService;
     @Inject
+    AnnonceService annonceService;
+    @Inject
+    ScoreboardService scoreboardService;
+    @Inject
+    ScoreboardStream scoreboardStream;
+    @Inject
+    ScoreHistory scoreHistory;
+    @Inject
     SecurityIdentity jwt;
+    @Context
+    HttpServerRequest httpRequest;
 
     @POST
     @Path("/request_creation")
@@ -34,29 +61,49 @@ public class CtfController {
         return Response.status(Response.Status.CREATED).build();
     }
 
+    @GET
+    @Path("/search")
+    public Response searchCtfs(@QueryParam("q") String query, @QueryParam("limit") Integer limit) {
+        return Response.ok(ctfService.searchCtfs(query, limit)).build();
+    }
+
+    @GET
+    @Path("/trending")
+    public Response getTrendingCtfs(@QueryParam("limit") Integer limit) {
+        return Response.ok(ctfService.getTrendingCtfs(limit)).build();
+    }
+
     @GET
     @Path("/{id}")
     public Response getCtfById(@PathParam("id") Long id) {
-        return Response.ok(ctfService.getCtfById(id)).build();
+        String subject = jwt.isAnonymous() ? null : jwt.getPrincipal().getName();
+        String remoteAddress = httpRequest.remoteAddress() == null ? null : httpRequest.remoteAddress().host();
+        return Response.ok(ctfService.getCtfById(id, subject, remoteAddress)).build();
     }
 
     @GET
     @Path("list/actif")
-    public Response getAllValidCtfs() {
-        return Response.ok(ctfService.getAllCtfsByStatut(CtfStatut.ACTIF)).build();
+    @ConditionalGet(Aggregate.CTF)
+    public Response getAllValidCtfs(@BeanParam PageRequest page) {
+        KeysetPage<CtfInfoResponse> ctfs = ctfService.getAllCtfsByStatut(CtfStatut.ACTIF, page);
+        return Response.ok(ctfs.items).header(KeysetPage.NEXT_CURSOR_HEADER, ctfs.nextCursor).build();
     }
 
     @GET
     @Path("list/en_attente")
-    public Response getAllPendingCtfs() {
-        return Response.ok(ctfService.getAllCtfsByStatut(CtfStatut.EN_ATTENTE)).build();
+    @ConditionalGet(Aggregate.CTF)
+    public Response getAllPendingCtfs(@BeanParam PageRequest page) {
+        KeysetPage<CtfInfoResponse> ctfs = ctfService.getAllCtfsByStatut(CtfStatut.EN_ATTENTE, page);
+        return Response.ok(ctfs.items).header(KeysetPage.NEXT_CURSOR_HEADER, ctfs.nextCursor).build();
     }
 
     @GET
     @Path("list/inactif")
+    @ConditionalGet(Aggregate.CTF)
     @RolesAllowed({"ADMINISTRATEUR","ORGANISATEUR"})
-    public Response getAllRefusedCtfs() {
-        return Response.ok(ctfService.getAllCtfsByStatut(CtfStatut.INACTIF)).build();
+    public Response getAllRefusedCtfs(@BeanParam PageRequest page) {
+        KeysetPage<CtfInfoResponse> ctfs = ctfService.getAllCtfsByStatut(CtfStatut.INACTIF, page);
+        return Response.ok(ctfs.items).header(KeysetPage.NEXT_CURSOR_HEADER, ctfs.nextCursor).build();
     }
 
     @POST
@@ -110,15 +157,73 @@ public class CtfController {
         return Response.noContent().build();
     }
 
+    @GET
+    @Path("/{id}/scoreboard")
+    public Response getScoreboard(@PathParam("id") Long id, @QueryParam("top") Integer top) {
+        return Response.ok(scoreboardService.top(id, top)).build();
+    }
+
+    @GET
+    @Path("/{id}/scoreboard/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Blocking
+    public Multi<ScoreboardFrame> streamScoreboard(@PathParam("id") Long id, @QueryParam("top") Integer top) {
+        return scoreboardStream.subscribe(id, top);
+    }
+
+    @GET
+    @Path("/{id}/scoreboard/history")
+    public Response getScoreHistory(@PathParam("id") Long id, @QueryParam("top") Integer top,
+                                    @QueryParam("points") Integer points) {
+        return Response.ok(scoreHistory.history(id, top, points)).build();
+    }
+
+    @GET
+    @Path("/{id}/scoreboard/me")
+    @RolesAllowed("PARTICIPANT")
+    public Response getMyRank(@PathParam("id") Long id) {
+        String participantEmail = jwt.getPrincipal().getName();
+        return Response.ok(scoreboardService.rankOf(id, participantEmail)).build();
+    }
+
     @GET
     @Path("/{id}/participations")
     @RolesAllowed({"ADMINISTRATEUR","ORGANISATEUR"})
     public Response getCtfParticipations(
             @PathParam("id") Long id,
-            @QueryParam("filter") @DefaultValue("ALL") ParticipationFilter filter) {
+            @QueryParam("filter") @DefaultValue("ALL") ParticipationFilter filter,
+            @BeanParam PageRequest page) {
+        String email = jwt.getPrincipal().getName();
+        boolean isAdmin = jwt.hasRole("ADMINISTRATEUR");
+
+        KeysetPage<ParticipationInfoResponse> participations =
+                ctfService.getParticipationsByFilter(id, filter, page, email, isAdmin);
+        return Response.ok(participations.items)
+                .header(KeysetPage.NEXT_CURSOR_HEADER, participations.nextCursor)
+                .build();
+    }
+
+    // 202 : l'annonce est enregistrée, sa distribution aux participants se poursuit en arrière-plan
+    @POST
+    @Path("/{id}/annonces")
+    @RolesAllowed({"ORGANISATEUR","ADMINISTRATEUR"})
+    public Response publishAnnonce(@PathParam("id") Long id, CreateAnnonceRequest request) {
+        String email = jwt.getPrincipal().getName();
+        boolean isAdmin = jwt.hasRole("ADMINISTRATEUR");
+
+        AnnonceResponse response = annonceService.publishAnnonce(id, email, isAdmin, request);
+        return Response.accepted(response).build();
+    }
+
+    @GET
+    @Path("/{id}/annonces")
+    @RolesAllowed({"ORGANISATEUR","ADMINISTRATEUR"})
+    public Response getCtfAnnonces(@PathParam("id") Long id, @BeanParam PageRequest page) {
         String email = jwt.getPrincipal().getName();
         boolean isAdmin = jwt.hasRole("ADMINISTRATEUR");
 
-        return Response.ok(ctfService.getParticipationsByFilter(id, filter, email, isAdmin)).build();
+        KeysetPage<AnnonceResponse> annonces = annonceService.getCtfAnnonces(id, email, isAdmin, page);
+        return Response.ok(annonces.items).header(KeysetPage.NEXT_CURSOR_HEADER, annonces.nextCursor).build();
     }
 }
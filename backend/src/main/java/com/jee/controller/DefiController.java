@@ -1,36 +1,70 @@
 package com.jee.controller;
 
+import com.jee.DTO.defi.DefiCreateRequest;
 import com.jee.DTO.defi.DefiDetailsResponse;
-import com.jee.entity.Defi;
+import com.jee.DTO.defi.FlagSubmissionRequest;
+import com.jee.DTO.defi.FlagSubmissionResponse;
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.filter.Aggregate;
+import com.jee.filter.ConditionalGet;
+import com.jee.repository.KeysetPage;
+import com.jee.service.DefiPodium;
 import com.jee.service.DefiService;
+import com.jee.service.FlagService;
+import com.jee.service.RateLimits;
 import io.quarkus.security.Authenticated;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.jwt.JsonWebToken;
 
 @Path("/defis")
 public class DefiController {
 
     @Inject
     DefiService defiService;
+    @Inject
+    FlagService flagService;
+    @Inject
+    RateLimits rateLimits;
+    @Inject
+    DefiPodium defiPodium;
+    @Inject
+    JsonWebToken jwt;
 
     @POST
     @Path("/create")
     @RolesAllowed("ADMINISTRATEUR")
-    public Response createDefi(Defi defi) {
-        defiService.createDefi(
-                defi.getTitre(),
-                defi.getPoints()
-        );
+    public Response createDefi(DefiCreateRequest request) {
+        defiService.createDefi(request);
         return Response
                 .status(Response.Status.CREATED)
                 .build();
     }
 
+    @POST
+    @Path("/{id}/submit")
+    @RolesAllowed("PARTICIPANT")
+    public Response submitFlag(@PathParam("id") Long id, FlagSubmissionRequest request) {
+        String participantEmail = jwt.getSubject();
+        String participantPseudo = jwt.getClaim("pseudo");
+        rateLimits.checkSubmission(participantEmail);
+        FlagSubmissionResponse response = flagService.submit(id, participantEmail, participantPseudo, request == null ? null : request.flag);
+        return Response.ok(response).build();
+    }
+
+    @GET
+    @Path("/{id}/podium")
+    @Authenticated
+    public Response getPodium(@PathParam("id") Long id) {
+        return Response.ok(defiPodium.podium(id)).build();
+    }
+
     @GET
     @Path("/{id}")
     @Authenticated
@@ -42,8 +76,10 @@ public class DefiController {
     @GET
     @Path("/all")
     @Authenticated
-    public Response getAllDefis() {
-        return Response.ok(defiService.getAllDefis()).build();
+    @ConditionalGet(Aggregate.DEFI)
+    public Response getAllDefis(@BeanParam PageRequest page) {
+        KeysetPage<DefiDetailsResponse> defis = defiService.getAllDefis(page);
+        return Response.ok(defis.items).header(KeysetPage.NEXT_CURSOR_HEADER, defis.nextCursor).build();
     }
 }
 
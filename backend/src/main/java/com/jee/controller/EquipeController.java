@@ -2,9 +2,14 @@ package com.jee.controller;
 
 import com.jee.DTO.equipe.CandidatureDecisionRequest;
 import com.jee.DTO.equipe.EquipeCreateRequest;
+import com.jee.DTO.equipe.EquipeListResponse;
 import com.jee.DTO.equipe.KickMembreRequest;
 import com.jee.DTO.equipe.NewChefEquipeRequest;
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.enums.StatutCandidature;
+import com.jee.filter.Aggregate;
+import com.jee.filter.ConditionalGet;
+import com.jee.repository.KeysetPage;
 import com.jee.service.EquipeService;
 import io.quarkus.security.Authenticated;
 import io.quarkus.security.identity.SecurityIdentity;
@@ -84,8 +89,12 @@ public class EquipeController {
     @Path("/all")
     @Produces(MediaType.APPLICATION_JSON)
     @Authenticated
-    public Response getAllEquipes() {
-        return Response.status(Response.Status.OK).entity(equipeService.getAllEquipes()).build();
+    @ConditionalGet(Aggregate.EQUIPE)
+    public Response getAllEquipes(@BeanParam PageRequest page) {
+        KeysetPage<EquipeListResponse> equipes = equipeService.getAllEquipes(page);
+        return Response.status(Response.Status.OK).entity(equipes.items)
+                .header(KeysetPage.NEXT_CURSOR_HEADER, equipes.nextCursor)
+                .build();
     }
 
     @GET
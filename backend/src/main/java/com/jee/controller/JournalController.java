@@ -0,0 +1,25 @@
+package com.jee.controller;
+
+import com.jee.service.JournalReplay;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/journal")
+@Produces(MediaType.APPLICATION_JSON)
+public class JournalController {
+
+    @Inject
+    JournalReplay journalReplay;
+
+    @POST
+    @Path("/replay")
+    @RolesAllowed("ADMINISTRATEUR")
+    public Response replay() {
+        return Response.ok(journalReplay.replay()).build();
+    }
+}
@@ -1,9 +1,16 @@
 package com.jee.controller;
 
+import com.jee.DTO.annonce.AnnonceResponse;
 import com.jee.DTO.messaging.*;
+import com.jee.DTO.pagination.MessagePageRequest;
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.repository.KeysetPage;
+import com.jee.service.AnnonceService;
 import com.jee.service.MessagingService;
 import io.quarkus.security.Authenticated;
 import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
@@ -19,6 +26,9 @@ public class MessagingController {
     @Inject
     MessagingService messagingService;
 
+    @Inject
+    AnnonceService annonceService;
+
     @Inject
     SecurityIdentity identity;
 
@@ -54,17 +64,17 @@ public class MessagingController {
     }
 
     /**
-     * Obtenir les détails d'une conversation avec tous les messages
+     * Obtenir les détails d'une conversation avec une page de messages (?before=&after=&limit=)
      * GET /messaging/conversations/{conversationId}
      */
     @GET
     @Path("/conversations/{conversationId}")
     @Transactional
-    public Response getConversationDetails(@PathParam("conversationId") Long conversationId) {
+    public Response getConversationDetails(@PathParam("conversationId") Long conversationId,
+                                           @BeanParam MessagePageRequest page) {
         String currentUserEmail = identity.getPrincipal().getName();
-        return Response.ok(
-                messagingService.getConversationDetails(conversationId, currentUserEmail)
-        ).build();
+        ConversationDetailsResponse details = messagingService.getConversationDetails(conversationId, currentUserEmail, page);
+        return Response.ok(details).header(KeysetPage.NEXT_CURSOR_HEADER, details.nextCursor).build();
     }
 
     /**
@@ -73,45 +83,43 @@ public class MessagingController {
      */
     @POST
     @Path("/conversations/{conversationId}/messages")
-    @Transactional
-    public Response sendMessage(
+    @Blocking
+    public Uni<Response> sendMessage(
             @PathParam("conversationId") Long conversationId,
             SendMessageRequest request) {
         String currentUserEmail = identity.getPrincipal().getName();
 
-        MessageResponse response = messagingService.sendMessage(
-                conversationId,
-                currentUserEmail,
-                request.content
-        );
-
-        return Response.status(Response.Status.CREATED).entity(response).build();
+        return messagingService.submitMessage(conversationId, currentUserEmail, request.content)
+                .map(response -> Response.status(Response.Status.CREATED).entity(response).build());
     }
 
     /**
-     * Récupérer seulement les messages d'une conversation (sans marquer comme lu)
-     * GET /messaging/conversations/{conversationId}/messages
+     * Récupérer une page de messages d'une conversation (sans marquer comme lu)
+     * Avec after et wait, la requête attend au plus wait qu'un nouveau message arrive (long-polling)
+     * GET /messaging/conversations/{conversationId}/messages?before=&after=&limit=&wait=25s
      */
     @GET
     @Path("/conversations/{conversationId}/messages")
-    public Response getConversationMessages(@PathParam("conversationId") Long conversationId) {
+    @Blocking
+    public Uni<Response> getConversationMessages(@PathParam("conversationId") Long conversationId,
+                                                 @BeanParam MessagePageRequest page,
+                                                 @QueryParam("wait") String wait) {
         String currentUserEmail = identity.getPrincipal().getName();
-        return Response.ok(
-                messagingService.getConversationMessages(conversationId, currentUserEmail)
-        ).build();
+        return messagingService.waitForMessages(conversationId, currentUserEmail, page, wait)
+                .map(messages -> Response.ok(messages.items).header(KeysetPage.NEXT_CURSOR_HEADER, messages.nextCursor).build());
     }
 
     /**
-     * Récupérer uniquement les messages non lus d'une conversation
-     * GET /messaging/conversations/{conversationId}/messages/unread
+     * Récupérer uniquement les messages non lus d'une conversation, par page
+     * GET /messaging/conversations/{conversationId}/messages/unread?before=&after=&limit=
      */
     @GET
     @Path("/conversations/{conversationId}/messages/unread")
-    public Response getUnreadMessages(@PathParam("conversationId") Long conversationId) {
+    public Response getUnreadMessages(@PathParam("conversationId") Long conversationId,
+                                      @BeanParam MessagePageRequest page) {
         String currentUserEmail = identity.getPrincipal().getName();
-        return Response.ok(
-                messagingService.getUnreadMessages(conversationId, currentUserEmail)
-        ).build();
+        KeysetPage<MessageResponse> messages = messagingService.getUnreadMessages(conversationId, currentUserEmail, page);
+        return Response.ok(messages.items).header(KeysetPage.NEXT_CURSOR_HEADER, messages.nextCursor).build();
     }
 
     /**
@@ -139,6 +147,18 @@ public class MessagingController {
         return Response.ok(new UnreadCountResponse(count)).build();
     }
 
+    /**
+     * Annonces des CTFs rejoints, les plus récentes avec ?order=desc
+     * GET /messaging/annonces
+     */
+    @GET
+    @Path("/annonces")
+    public Response getMyAnnonces(@BeanParam PageRequest page) {
+        String currentUserEmail = identity.getPrincipal().getName();
+        KeysetPage<AnnonceResponse> annonces = annonceService.getMyAnnonces(currentUserEmail, page);
+        return Response.ok(annonces.items).header(KeysetPage.NEXT_CURSOR_HEADER, annonces.nextCursor).build();
+    }
+
     // Classes helper pour les réponses
     public static class ConversationIdResponse {
         public Long conversationId;
@@ -0,0 +1,37 @@
+package com.jee.controller;
+
+import com.jee.service.MessagingSessions;
+import io.quarkus.security.Authenticated;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.websockets.next.OnClose;
+import io.quarkus.websockets.next.OnOpen;
+import io.quarkus.websockets.next.WebSocket;
+import io.quarkus.websockets.next.WebSocketConnection;
+import jakarta.inject.Inject;
+
+/**
+ * Messages privés poussés en direct : le serveur n'envoie que des trames, rien n'est lu côté client.
+ * Authentification par le JWT habituel, dans l'en-tête Authorization ou, depuis un navigateur,
+ * dans les sous-protocoles : "bearer-token-carrier" et "quarkus-http-upgrade#Authorization#Bearer <jwt>".
+ * WS /messaging/ws
+ */
+@WebSocket(path = "/messaging/ws")
+@Authenticated
+public class MessagingSocket {
+
+    @Inject
+    MessagingSessions messagingSessions;
+
+    @Inject
+    SecurityIdentity identity;
+
+    @OnOpen
+    public void onOpen(WebSocketConnection connection) {
+        messagingSessions.register(identity.getPrincipal().getName(), connection);
+    }
+
+    @OnClose
+    public void onClose(WebSocketConnection connection) {
+        messagingSessions.unregister(identity.getPrincipal().getName(), connection);
+    }
+}
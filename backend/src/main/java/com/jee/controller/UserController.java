@@ -1,10 +1,16 @@
 package com.jee.controller;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.DTO.user.BanUserRequest;
+import com.jee.DTO.user.ParticipantInfoPublicResponse;
+import com.jee.DTO.user.UserInfoAdminResponse;
+import com.jee.DTO.user.UserPublicDetails;
+import com.jee.repository.KeysetPage;
 import com.jee.service.UserService;
 import io.quarkus.security.Authenticated;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
@@ -31,22 +37,25 @@ public class UserController {
     @GET
     @Path("/getall/admin")
     @RolesAllowed("ADMINISTRATEUR")
-    public Response getAllUsersForAdmin() {
-        return Response.ok(userService.getAllUsersForAdmin()).build();
+    public Response getAllUsersForAdmin(@BeanParam PageRequest page) {
+        KeysetPage<UserInfoAdminResponse> users = userService.getAllUsersForAdmin(page);
+        return Response.ok(users.items).header(KeysetPage.NEXT_CURSOR_HEADER, users.nextCursor).build();
     }
 
     @GET
     @Path("/getall/participants")
     @Authenticated
-    public Response getAllUsersForPublic() {
-        return Response.ok(userService.getAllUsersForPublic()).build();
+    public Response getAllUsersForPublic(@BeanParam PageRequest page) {
+        KeysetPage<ParticipantInfoPublicResponse> users = userService.getAllUsersForPublic(page);
+        return Response.ok(users.items).header(KeysetPage.NEXT_CURSOR_HEADER, users.nextCursor).build();
     }
 
     @GET
     @Path("/getall/organisateurs")
     @Authenticated
-    public Response getAllOrganisateurs() {
-        return Response.ok(userService.getAllOrganisateurs()).build();
+    public Response getAllOrganisateurs(@BeanParam PageRequest page) {
+        KeysetPage<UserPublicDetails> users = userService.getAllOrganisateurs(page);
+        return Response.ok(users.items).header(KeysetPage.NEXT_CURSOR_HEADER, users.nextCursor).build();
     }
 
 
@@ -0,0 +1,104 @@
+package com.jee.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Annonce d'un organisateur à tous les participants actifs de son CTF, distribuée en arrière-plan (AnnonceFanout)
+@Entity
+@Table(name = "annonces",
+        indexes = @Index(name = "idx_annonces_ctf_id", columnList = "ctf_id, id"))
+public class Annonce {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "ctf_id", nullable = false)
+    private CTF ctf;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "auteur_email", referencedColumnName = "email", nullable = false)
+    private User auteur;
+
+    @Column(nullable = false, length = 5000)
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Id de la dernière participation traitée : la distribution reprend après elle
+    @Column(name = "fanout_cursor", nullable = false)
+    private long fanoutCursor;
+
+    @Column(name = "recipient_count", nullable = false)
+    private int recipientCount;
+
+    // Null tant que la distribution n'est pas terminée
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+
+    public Annonce() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public CTF getCtf() {
+        return ctf;
+    }
+
+    public void setCtf(CTF ctf) {
+        this.ctf = ctf;
+    }
+
+    public User getAuteur() {
+        return auteur;
+    }
+
+    public void setAuteur(User auteur) {
+        this.auteur = auteur;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getFanoutCursor() {
+        return fanoutCursor;
+    }
+
+    public void setFanoutCursor(long fanoutCursor) {
+        this.fanoutCursor = fanoutCursor;
+    }
+
+    public int getRecipientCount() {
+        return recipientCount;
+    }
+
+    public void setRecipientCount(int recipientCount) {
+        this.recipientCount = recipientCount;
+    }
+
+    public Instant getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(Instant deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.jee.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+// Une annonce remise à un participant ; écrite par lots par AnnonceFanout
+@Entity
+@Table(name = "annonce_deliveries",
+        indexes = @Index(name = "idx_annonce_deliveries_participant", columnList = "participant_email, annonce_id DESC"))
+@IdClass(AnnonceDelivery.Key.class)
+public class AnnonceDelivery {
+
+    @Id
+    @Column(name = "annonce_id")
+    private Long annonceId;
+
+    @Id
+    @Column(name = "participant_email")
+    private String participantEmail;
+
+    @Column(name = "delivered_at", nullable = false)
+    private Instant deliveredAt;
+
+    public AnnonceDelivery() {
+    }
+
+    public Long getAnnonceId() {
+        return annonceId;
+    }
+
+    public String getParticipantEmail() {
+        return participantEmail;
+    }
+
+    public Instant getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public static class Key implements Serializable {
+        public Long annonceId;
+        public String participantEmail;
+
+        public Key() {
+        }
+
+        public Key(Long annonceId, String participantEmail) {
+            this.annonceId = annonceId;
+            this.participantEmail = participantEmail;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(annonceId, key.annonceId)
+                    && Objects.equals(participantEmail, key.participantEmail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(annonceId, participantEmail);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.jee.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Dernier message lu par un utilisateur dans une conversation : tout message d'id supérieur est non lu
+@Entity
+@Table(name = "conversation_read_states")
+@IdClass(ConversationReadState.Key.class)
+public class ConversationReadState {
+
+    @Id
+    @Column(name = "conversation_id")
+    private Long conversationId;
+
+    @Id
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "last_read_message_id", nullable = false)
+    private long lastReadMessageId;
+
+    public ConversationReadState() {
+    }
+
+    public Long getConversationId() {
+        return conversationId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public static class Key implements Serializable {
+        public Long conversationId;
+        public String userEmail;
+
+        public Key() {
+        }
+
+        public Key(Long conversationId, String userEmail) {
+            this.conversationId = conversationId;
+            this.userEmail = userEmail;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(conversationId, key.conversationId)
+                    && Objects.equals(userEmail, key.userEmail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(conversationId, userEmail);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.jee.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Sketch HyperLogLog des visiteurs uniques d'un CTF (voir CtfUniqueViewCounter)
+@Entity
+@Table(name = "ctf_unique_views")
+public class CtfUniqueViews {
+
+    @Id
+    @Column(name = "ctf_id")
+    private Long ctfId;
+
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public CtfUniqueViews() {
+    }
+
+    public CtfUniqueViews(Long ctfId, byte[] sketch) {
+        this.ctfId = ctfId;
+        this.sketch = sketch;
+        this.updatedAt = Instant.now();
+    }
+
+    public Long getCtfId() {
+        return ctfId;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+        this.updatedAt = Instant.now();
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
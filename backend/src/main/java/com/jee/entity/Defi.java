@@ -12,6 +12,19 @@ public class Defi {
     private String titre;
     private int points;
 
+    // Points dégressifs (optionnels) : la valeur passe de points à pointsMin en decroissance résolutions
+    private Integer pointsMin;
+    private int decroissance;
+
+    // CTF auquel le défi appartient (null pour un défi hors CTF) : ses résolutions comptent dans son classement
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ctf_id")
+    private CTF ctf;
+
+    // Le flag n'est jamais stocké en clair : SHA-256(sel || flag), encodés en Base64
+    private String flagHash;
+    private String flagSalt;
+
     public Defi(String titre, int points) {
         this.titre = titre;
         this.points = points;
@@ -29,6 +42,21 @@ public class Defi {
     public int getPoints() {
         return points;
     }
+    public Integer getPointsMin() {
+        return pointsMin;
+    }
+    public int getDecroissance() {
+        return decroissance;
+    }
+    public CTF getCtf() {
+        return ctf;
+    }
+    public String getFlagHash() {
+        return flagHash;
+    }
+    public String getFlagSalt() {
+        return flagSalt;
+    }
 
     public void setId(Long id) {
         this.id = id;
@@ -39,4 +67,15 @@ public class Defi {
     public void setPoints(int points) {
         this.points = points;
     }
+    public void setDecay(Integer pointsMin, int decroissance) {
+        this.pointsMin = pointsMin;
+        this.decroissance = decroissance;
+    }
+    public void setCtf(CTF ctf) {
+        this.ctf = ctf;
+    }
+    public void setFlag(String flagSalt, String flagHash) {
+        this.flagSalt = flagSalt;
+        this.flagHash = flagHash;
+    }
 }
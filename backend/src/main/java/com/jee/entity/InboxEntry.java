@@ -0,0 +1,113 @@
+package com.jee.entity;
+
+import com.jee.entity.enums.Role;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+// Ligne de la liste des conversations d'un utilisateur, tenue à jour à chaque message et à chaque lecture
+@Entity
+@Table(name = "inbox_entries",
+        indexes = @Index(name = "idx_inbox_entries_owner_last_message", columnList = "owner_email, last_message_at DESC"))
+@IdClass(InboxEntry.Key.class)
+public class InboxEntry {
+
+    public static final int PREVIEW_LENGTH = 200;
+
+    @Id
+    @Column(name = "owner_email")
+    private String ownerEmail;
+
+    @Id
+    @Column(name = "conversation_id")
+    private Long conversationId;
+
+    @Column(name = "other_user_email", nullable = false)
+    private String otherUserEmail;
+
+    @Column(name = "other_user_pseudo", nullable = false)
+    private String otherUserPseudo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "other_user_role", nullable = false)
+    private Role otherUserRole;
+
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at")
+    private Instant lastMessageAt;
+
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount;
+
+    public InboxEntry() {
+    }
+
+    public InboxEntry(String ownerEmail, Long conversationId, User otherUser, Instant lastMessageAt) {
+        this.ownerEmail = ownerEmail;
+        this.conversationId = conversationId;
+        this.otherUserEmail = otherUser.getEmail();
+        this.otherUserPseudo = otherUser.getPseudo();
+        this.otherUserRole = otherUser.getRole();
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    public Long getConversationId() {
+        return conversationId;
+    }
+
+    public String getOtherUserEmail() {
+        return otherUserEmail;
+    }
+
+    public String getOtherUserPseudo() {
+        return otherUserPseudo;
+    }
+
+    public Role getOtherUserRole() {
+        return otherUserRole;
+    }
+
+    public String getLastMessagePreview() {
+        return lastMessagePreview;
+    }
+
+    public Instant getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public static class Key implements Serializable {
+        public String ownerEmail;
+        public Long conversationId;
+
+        public Key() {
+        }
+
+        public Key(String ownerEmail, Long conversationId) {
+            this.ownerEmail = ownerEmail;
+            this.conversationId = conversationId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(ownerEmail, key.ownerEmail)
+                    && Objects.equals(conversationId, key.conversationId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ownerEmail, conversationId);
+        }
+    }
+}
@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        indexes = @Index(name = "idx_messages_conversation_id", columnList = "conversation_id, id"))
 public class Message {
 
     @Id
@@ -25,6 +26,8 @@ public class Message {
     @Column(nullable = false)
     private Instant sentAt;
 
+    // Ancien indicateur de lecture, conservé pour les schémas existants : l'état de lecture est
+    // désormais le dernier message lu de chaque utilisateur (ConversationReadState)
     @Column(nullable = false)
     private boolean isRead = false;
 
@@ -29,6 +29,10 @@ public class ParticipationSoloCtf {
     @Column
     private Instant leftAt;
 
+    public Long getId() {
+        return id;
+    }
+
     public Instant getJoinedAt() {
         return joinedAt;
     }
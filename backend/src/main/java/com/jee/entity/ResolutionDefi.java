@@ -0,0 +1,71 @@
+package com.jee.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "defi_resolutions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"participant_email", "defi_id"})
+)
+public class ResolutionDefi {
+
+    // Séquence plutôt qu'IDENTITY : les résolutions sont insérées par lots (voir SolveRecorder)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "defi_resolutions_seq")
+    @SequenceGenerator(name = "defi_resolutions_seq", sequenceName = "defi_resolutions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "participant_email", nullable = false)
+    private Participant participant;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "defi_id", nullable = false)
+    private Defi defi;
+
+    @Column(nullable = false)
+    private int points;
+
+    @Column(nullable = false)
+    private Instant solvedAt;
+
+    // Ordre de résolution dans le défi (1 = premier sang), attribué en mémoire par DefiScoring
+    private Integer ordre;
+
+    public ResolutionDefi() {
+    }
+
+    public ResolutionDefi(Participant participant, Defi defi, int points, Instant solvedAt, int ordre) {
+        this.participant = participant;
+        this.defi = defi;
+        this.points = points;
+        this.solvedAt = solvedAt;
+        this.ordre = ordre;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Participant getParticipant() {
+        return participant;
+    }
+
+    public Defi getDefi() {
+        return defi;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public Instant getSolvedAt() {
+        return solvedAt;
+    }
+
+    public Integer getOrdre() {
+        return ordre;
+    }
+}
@@ -0,0 +1,10 @@
+package com.jee.event;
+
+// Evénement CDI émis par AnnonceService à la publication d'une annonce, observé après le commit
+public class AnnonceCreatedEvent {
+    public final Long annonceId;
+
+    public AnnonceCreatedEvent(Long annonceId) {
+        this.annonceId = annonceId;
+    }
+}
@@ -0,0 +1,21 @@
+package com.jee.event;
+
+import com.jee.entity.CTF;
+import com.jee.entity.enums.CtfStatut;
+
+// Evénement CDI émis par CtfService à chaque écriture sur un CTF, avec l'état du CTF au moment du commit
+public class CtfChangedEvent {
+    public final Long ctfId;
+    public final String titre;
+    public final String description;
+    public final String lieu;
+    public final CtfStatut statut;
+
+    public CtfChangedEvent(CTF ctf) {
+        this.ctfId = ctf.getId();
+        this.titre = ctf.getTitre();
+        this.description = ctf.getDescription();
+        this.lieu = ctf.getLieu();
+        this.statut = ctf.getStatut();
+    }
+}
@@ -0,0 +1,14 @@
+package com.jee.event;
+
+// Evénement CDI émis par CtfService quand un participant rejoint un CTF
+public class CtfJoinedEvent {
+    public final Long ctfId;
+    public final String participantEmail;
+    public final String participantPseudo;
+
+    public CtfJoinedEvent(Long ctfId, String participantEmail, String participantPseudo) {
+        this.ctfId = ctfId;
+        this.participantEmail = participantEmail;
+        this.participantPseudo = participantPseudo;
+    }
+}
@@ -0,0 +1,12 @@
+package com.jee.event;
+
+// Evénement CDI émis par CtfService quand un participant quitte un CTF
+public class CtfLeftEvent {
+    public final Long ctfId;
+    public final String participantEmail;
+
+    public CtfLeftEvent(Long ctfId, String participantEmail) {
+        this.ctfId = ctfId;
+        this.participantEmail = participantEmail;
+    }
+}
@@ -0,0 +1,24 @@
+package com.jee.event;
+
+import com.jee.entity.Defi;
+
+// Evénement CDI émis par DefiService à chaque écriture sur un défi, avec l'état du défi au moment du commit
+public class DefiChangedEvent {
+    public final Long defiId;
+    public final Long ctfId;
+    public final int points;
+    public final Integer pointsMin;
+    public final int decroissance;
+    public final String flagSalt;
+    public final String flagHash;
+
+    public DefiChangedEvent(Defi defi) {
+        this.defiId = defi.getId();
+        this.ctfId = defi.getCtf() == null ? null : defi.getCtf().getId();
+        this.points = defi.getPoints();
+        this.pointsMin = defi.getPointsMin();
+        this.decroissance = defi.getDecroissance();
+        this.flagSalt = defi.getFlagSalt();
+        this.flagHash = defi.getFlagHash();
+    }
+}
@@ -0,0 +1,31 @@
+package com.jee.event;
+
+import java.time.Instant;
+import java.util.List;
+
+// Evénement CDI émis par FlagService dès qu'un flag est accepté, avant l'écriture en base de la résolution
+public class DefiSolvedEvent {
+    public final Long defiId;
+    public final Long ctfId; // null pour un défi hors CTF
+    public final String participantEmail;
+    public final String participantPseudo;
+    public final int points;
+    public final Instant solvedAt;
+    public final int ordre; // 1 = premier sang
+    // Défi à points dégressifs : la valeur a baissé pour ceux qui l'avaient déjà résolu
+    public final List<String> previousSolvers;
+    public final int previousSolversDelta;
+
+    public DefiSolvedEvent(Long defiId, Long ctfId, String participantEmail, String participantPseudo, int points, Instant solvedAt,
+                           int ordre, List<String> previousSolvers, int previousSolversDelta) {
+        this.defiId = defiId;
+        this.ctfId = ctfId;
+        this.participantEmail = participantEmail;
+        this.participantPseudo = participantPseudo;
+        this.points = points;
+        this.solvedAt = solvedAt;
+        this.ordre = ordre;
+        this.previousSolvers = previousSolvers;
+        this.previousSolversDelta = previousSolversDelta;
+    }
+}
@@ -0,0 +1,10 @@
+package com.jee.event;
+
+// Evénement CDI émis par EquipeService à chaque écriture visible dans la liste des équipes
+public class EquipeChangedEvent {
+    public final Long equipeId;
+
+    public EquipeChangedEvent(Long equipeId) {
+        this.equipeId = equipeId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.jee.event;
+
+import java.time.Instant;
+
+// Evénement CDI émis par MessagingService à l'envoi d'un message, observé après le commit
+public class MessageSentEvent {
+    public final Long conversationId;
+    public final Long messageId;
+    public final String senderEmail;
+    public final String senderPseudo;
+    public final String recipientEmail;
+    public final String content;
+    public final Instant sentAt;
+
+    public MessageSentEvent(Long conversationId, Long messageId, String senderEmail, String senderPseudo,
+                            String recipientEmail, String content, Instant sentAt) {
+        this.conversationId = conversationId;
+        this.messageId = messageId;
+        this.senderEmail = senderEmail;
+        this.senderPseudo = senderPseudo;
+        this.recipientEmail = recipientEmail;
+        this.content = content;
+        this.sentAt = sentAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.jee.exceptionHandler;
 
 import com.jee.DTO.ErrorResponse;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
@@ -11,9 +12,12 @@ public class ApiExceptionMapper implements ExceptionMapper<ApiException> {
 
     @Override
     public Response toResponse(ApiException exception) {
-        return Response.status(exception.status)
+        Response.ResponseBuilder response = Response.status(exception.status)
                 .type(MediaType.APPLICATION_JSON)
-                .entity(new ErrorResponse(exception.code, exception.getMessage()))
-                .build();
+                .entity(new ErrorResponse(exception.code, exception.getMessage()));
+        if (exception instanceof RateLimitedException rateLimited) {
+            response.header(HttpHeaders.RETRY_AFTER, rateLimited.retryAfterSeconds);
+        }
+        return response.build();
     }
 }
@@ -0,0 +1,12 @@
+package com.jee.exceptionHandler;
+
+// 429 avec l'en-tête Retry-After (voir ApiExceptionMapper)
+public class RateLimitedException extends ApiException {
+
+    public final long retryAfterSeconds;
+
+    public RateLimitedException(long retryAfterSeconds) {
+        super(429, "TOO_MANY_REQUESTS", "Trop de requêtes, réessayez dans " + retryAfterSeconds + " s.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
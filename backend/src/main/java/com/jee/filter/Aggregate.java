@@ -0,0 +1,6 @@
+package com.jee.filter;
+
+// Agrégats dont les lectures publiques sont versionnées pour les ETags
+public enum Aggregate {
+    CTF, EQUIPE, DEFI
+}
@@ -0,0 +1,19 @@
+package com.jee.filter;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Active l'ETag et la réponse 304 sur un GET dont le contenu ne dépend que de l'agrégat indiqué
+ * (et des paramètres de la requête). Voir ConditionalGetFilter.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ConditionalGet {
+    Aggregate value() default Aggregate.CTF;
+}
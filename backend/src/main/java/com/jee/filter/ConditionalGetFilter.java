@@ -0,0 +1,94 @@
+package com.jee.filter;
+
+import com.jee.service.AggregateVersions;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * GET conditionnel pour les méthodes annotées @ConditionalGet.
+ * L'ETag vient de la version de l'agrégat (AggregateVersions) lue avant la requête :
+ * si If-None-Match correspond, on répond 304 sans appeler la ressource.
+ * La version est lue avant l'exécution : au pire l'ETag est en retard, jamais en avance sur les données.
+ */
+@Provider
+@ConditionalGet
+@Priority(Priorities.USER)
+public class ConditionalGetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String ETAG_PROPERTY = ConditionalGetFilter.class.getName() + ".etag";
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Inject
+    AggregateVersions aggregateVersions;
+
+    @ConfigProperty(name = "ctf.http.cache.max-age", defaultValue = "5")
+    int maxAge;
+
+    @ConfigProperty(name = "ctf.http.cache.stale-while-revalidate", defaultValue = "30")
+    int staleWhileRevalidate;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return;
+        }
+
+        ConditionalGet conditionalGet = resourceInfo.getResourceMethod().getAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            conditionalGet = resourceInfo.getResourceClass().getAnnotation(ConditionalGet.class);
+        }
+
+        String etag = aggregateVersions.etag(conditionalGet.value(), request.getUriInfo().getRequestUri().getRawQuery());
+        request.setProperty(ETAG_PROPERTY, etag);
+
+        if (matches(request.getHeaderString(HttpHeaders.IF_NONE_MATCH), etag)) {
+            request.abortWith(Response.notModified().build());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object etag = request.getProperty(ETAG_PROPERTY);
+        int status = response.getStatus();
+        if (etag == null || (status != 200 && status != 304)) {
+            return;
+        }
+
+        // Réponse partagée seulement si la requête n'était pas authentifiée
+        boolean authenticated = request.getHeaderString(HttpHeaders.AUTHORIZATION) != null;
+
+        MultivaluedMap<String, Object> headers = response.getHeaders();
+        headers.putSingle(HttpHeaders.ETAG, etag);
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, (authenticated ? "private" : "public")
+                + ", max-age=" + maxAge + ", stale-while-revalidate=" + staleWhileRevalidate);
+        headers.putSingle(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
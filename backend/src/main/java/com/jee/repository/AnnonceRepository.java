@@ -0,0 +1,87 @@
+package com.jee.repository;
+
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.entity.Annonce;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class AnnonceRepository {
+
+    // Une participation du lot ; inserted vaut false si l'annonce avait déjà été remise (reprise après un arrêt)
+    public record Delivery(long participationId, String participantEmail, boolean inserted) {
+    }
+
+    @Inject
+    EntityManager em;
+
+    public void persist(Annonce annonce) {
+        em.persist(annonce);
+    }
+
+    public Annonce findWithCtfAndAuteur(Long id) {
+        return em.createQuery("SELECT a FROM Annonce a JOIN FETCH a.ctf JOIN FETCH a.auteur WHERE a.id = :id", Annonce.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Annonces dont la distribution a été interrompue (arrêt du serveur, échec d'un lot)
+    public List<Long> findUndeliveredIds() {
+        return em.createQuery("SELECT a.id FROM Annonce a WHERE a.deliveredAt IS NULL ORDER BY a.id", Long.class)
+                .getResultList();
+    }
+
+    public KeysetPage<Annonce> findPageByCtfId(Long ctfId, PageRequest page) {
+        return Keyset.fetch(em, Annonce.class, "SELECT a FROM Annonce a JOIN FETCH a.ctf JOIN FETCH a.auteur",
+                "a.ctf.id = :ctfId", "a.id", Long.class, page, Map.of("ctfId", ctfId), Annonce::getId);
+    }
+
+    public KeysetPage<Annonce> findPageByParticipantEmail(String participantEmail, PageRequest page) {
+        return Keyset.fetch(em, Annonce.class, "SELECT a FROM Annonce a JOIN FETCH a.ctf JOIN FETCH a.auteur",
+                "a.id IN (SELECT d.annonceId FROM AnnonceDelivery d WHERE d.participantEmail = :email)",
+                "a.id", Long.class, page, Map.of("email", participantEmail), Annonce::getId);
+    }
+
+    /*
+     * Un lot de distribution en un seul aller-retour : les participations actives du CTF après le curseur,
+     * dans l'ordre des ids, et l'insertion des remises correspondantes. ON CONFLICT rend la reprise d'un lot sans effet.
+     */
+    public List<Delivery> deliverBatch(Long annonceId, Long ctfId, long afterParticipationId, int limit, Instant now) {
+        List<?> rows = em.createNativeQuery("""
+            WITH batch AS (
+                SELECT pc.id, pc.participant_id FROM participations_ctf pc
+                WHERE pc.ctf_id = :ctfId AND pc.id > :after AND pc.leftAt IS NULL AND pc.completedAt IS NULL
+                ORDER BY pc.id
+                LIMIT :limit
+            ), delivered AS (
+                INSERT INTO annonce_deliveries (annonce_id, participant_email, delivered_at)
+                SELECT :annonceId, b.participant_id, :now FROM batch b
+                ON CONFLICT (annonce_id, participant_email) DO NOTHING
+                RETURNING participant_email
+            )
+            SELECT b.id, b.participant_id, d.participant_email IS NOT NULL
+            FROM batch b LEFT JOIN delivered d ON d.participant_email = b.participant_id
+            ORDER BY b.id""")
+                .setParameter("ctfId", ctfId)
+                .setParameter("after", afterParticipationId)
+                .setParameter("limit", limit)
+                .setParameter("annonceId", annonceId)
+                .setParameter("now", now)
+                .getResultList();
+
+        List<Delivery> deliveries = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            deliveries.add(new Delivery(((Number) columns[0]).longValue(), (String) columns[1], (Boolean) columns[2]));
+        }
+        return deliveries;
+    }
+}
@@ -1,11 +1,13 @@
 package com.jee.repository;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.CommentaireCtf;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class CommentsRepository {
@@ -17,10 +19,9 @@ public class CommentsRepository {
         em.persist(commentaireCtf);
     }
 
-    public List<CommentaireCtf> findAllByCtfId(Long ctfId) {
-        return em.createQuery("SELECT cc FROM CommentaireCtf cc WHERE cc.ctf.id = :ctfId", CommentaireCtf.class)
-                .setParameter("ctfId", ctfId)
-                .getResultList();
+    public KeysetPage<CommentaireCtf> findPageByCtfId(Long ctfId, PageRequest page) {
+        return Keyset.fetch(em, CommentaireCtf.class, "SELECT cc FROM CommentaireCtf cc JOIN FETCH cc.user",
+                "cc.ctf.id = :ctfId", "cc.id", Long.class, page, Map.of("ctfId", ctfId), CommentaireCtf::getId);
     }
 
     public List<CommentaireCtf> findAllByUserEmail(String userEmail) {
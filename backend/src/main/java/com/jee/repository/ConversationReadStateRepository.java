@@ -0,0 +1,56 @@
+package com.jee.repository;
+
+import com.jee.entity.ConversationReadState;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+@ApplicationScoped
+public class ConversationReadStateRepository {
+
+    @Inject
+    EntityManager em;
+
+    public List<ConversationReadState> findByConversationId(Long conversationId) {
+        return em.createQuery("SELECT rs FROM ConversationReadState rs WHERE rs.conversationId = :conversationId",
+                        ConversationReadState.class)
+                .setParameter("conversationId", conversationId)
+                .getResultList();
+    }
+
+    // Une seule ligne écrite : le repère avance jusqu'au dernier message de la conversation, sans jamais reculer
+    // (ConversationRepository.lockForInsert : aucun id plus petit ne peut être validé après)
+    public void markReadUpToLatest(Long conversationId, String userEmail) {
+        em.createNativeQuery("""
+            INSERT INTO conversation_read_states (conversation_id, user_email, last_read_message_id)
+            SELECT :conversationId, :userEmail, COALESCE(MAX(m.id), 0) FROM messages m WHERE m.conversation_id = :conversationId
+            ON CONFLICT (conversation_id, user_email) DO UPDATE
+            SET last_read_message_id = GREATEST(conversation_read_states.last_read_message_id, EXCLUDED.last_read_message_id)""")
+                .setParameter("conversationId", conversationId)
+                .setParameter("userEmail", userEmail)
+                .executeUpdate();
+    }
+
+    public boolean isEmpty() {
+        return em.createQuery("SELECT rs.conversationId FROM ConversationReadState rs", Long.class)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // Reprise des anciens indicateurs isRead : le repère de chaque destinataire est son dernier message lu
+    public int backfillFromReadFlags() {
+        return em.createNativeQuery("""
+            INSERT INTO conversation_read_states (conversation_id, user_email, last_read_message_id)
+            SELECT m.conversation_id,
+                   CASE WHEN m.sender_email = c.user1_email THEN c.user2_email ELSE c.user1_email END,
+                   MAX(m.id)
+            FROM messages m JOIN conversations c ON c.id = m.conversation_id
+            WHERE m.isRead = true
+            GROUP BY 1, 2
+            ON CONFLICT (conversation_id, user_email) DO NOTHING""")
+                .executeUpdate();
+    }
+}
@@ -4,8 +4,13 @@ import com.jee.entity.Discussion;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class ConversationRepository {
@@ -25,6 +30,36 @@ public class ConversationRepository {
                 .orElse(null);
     }
 
+    /*
+     * Verrouille les conversations avant d'y insérer des messages, par id croissant pour éviter les interblocages.
+     * Les ids (IDENTITY) sont pris à l'insertion, pas au commit : sans ce verrou, un id plus petit pourrait être
+     * validé après un plus grand, et le repère de lecture ou un long-polling `after` passerait par-dessus.
+     * Tenu jusqu'au commit, il fait valider les messages d'une conversation dans l'ordre de leurs ids.
+     */
+    public void lockForInsert(Collection<Long> conversationIds) {
+        em.createNativeQuery("SELECT id FROM conversations WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+                .setParameter("ids", conversationIds)
+                .getResultList();
+    }
+
+    // lastMessageAt de plusieurs conversations en un UPDATE
+    public void updateLastMessageAt(Map<Long, Instant> lastMessageAt) {
+        List<Map.Entry<Long, Instant>> conversations = new ArrayList<>(lastMessageAt.entrySet());
+        StringBuilder sql = new StringBuilder("UPDATE conversations c SET lastMessageAt = v.at FROM (VALUES ");
+        for (int i = 0; i < conversations.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(CAST(:id").append(i).append(" AS bigint), CAST(:at").append(i).append(" AS timestamp with time zone))");
+        }
+        sql.append(") AS v(id, at) WHERE c.id = v.id");
+
+        Query query = em.createNativeQuery(sql.toString());
+        for (int i = 0; i < conversations.size(); i++) {
+            query.setParameter("id" + i, conversations.get(i).getKey())
+                    .setParameter("at" + i, conversations.get(i).getValue());
+        }
+        query.executeUpdate();
+    }
+
     public Discussion findConversationBetweenUsers(String email1, String email2) {
         // On s'assure que email1 < email2 pour la recherche
         String smallerEmail = email1.compareTo(email2) < 0 ? email1 : email2;
@@ -39,12 +74,4 @@ public class ConversationRepository {
                 .findFirst()
                 .orElse(null);
     }
-
-    public List<Discussion> findAllConversationsByUserEmail(String userEmail) {
-        return em.createQuery(
-                        "SELECT c FROM Discussion c WHERE c.user1.email = :email OR c.user2.email = :email ORDER BY c.lastMessageAt DESC",
-                        Discussion.class)
-                .setParameter("email", userEmail)
-                .getResultList();
-    }
-}
\ No newline at end of file
+}
@@ -1,12 +1,16 @@
 package com.jee.repository;
 
+import com.jee.DTO.ctf.CtfInfoResponse;
 import com.jee.entity.CTF;
 import com.jee.entity.enums.CtfStatut;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class CtfRepository {
@@ -31,4 +35,36 @@ public class CtfRepository {
                 .setParameter("statut", statut)
                 .getResultList();
     }
+
+    // Projection en une seule requête : pas de chargement des entités ni du contact LAZY
+    public List<CtfInfoResponse> findCatalogByStatut(CtfStatut statut) {
+        return em.createQuery("""
+                        SELECT new com.jee.DTO.ctf.CtfInfoResponse(c.id, c.titre, c.description, c.lieu, c.nbVues, c.statut, o.pseudo)
+                        FROM CTF c JOIN c.contact o
+                        WHERE c.statut = :statut
+                        ORDER BY c.id""", CtfInfoResponse.class)
+                .setParameter("statut", statut)
+                .getResultList();
+    }
+
+    // Un seul UPDATE pour tous les CTFs : nbVues = nbVues + CASE id WHEN ... THEN delta END
+    public int addViews(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder query = new StringBuilder("UPDATE CTF c SET c.nbVues = c.nbVues + CASE c.id");
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        for (int i = 0; i < ids.size(); i++) {
+            query.append(" WHEN :id").append(i).append(" THEN :delta").append(i);
+        }
+        query.append(" ELSE 0 END WHERE c.id IN :ids");
+
+        Query update = em.createQuery(query.toString()).setParameter("ids", ids);
+        for (int i = 0; i < ids.size(); i++) {
+            update.setParameter("id" + i, ids.get(i));
+            update.setParameter("delta" + i, deltas.get(ids.get(i)));
+        }
+        return update.executeUpdate();
+    }
 }
@@ -0,0 +1,28 @@
+package com.jee.repository;
+
+import com.jee.entity.CtfUniqueViews;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+@ApplicationScoped
+public class CtfUniqueViewsRepository {
+
+    @Inject
+    EntityManager em;
+
+    public void persist(CtfUniqueViews views) {
+        em.persist(views);
+    }
+
+    public CtfUniqueViews findByCtfId(Long ctfId) {
+        return em.find(CtfUniqueViews.class, ctfId);
+    }
+
+    public List<CtfUniqueViews> findAll() {
+        return em.createQuery("SELECT v FROM CtfUniqueViews v", CtfUniqueViews.class)
+                .getResultList();
+    }
+}
@@ -1,11 +1,14 @@
 package com.jee.repository;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.Defi;
+import com.jee.entity.enums.CtfStatut;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class DefiRepository {
@@ -34,7 +37,25 @@ public class DefiRepository {
                 .orElse(null);
     }
 
-    public List<Defi> findAllDefis() {
+    public KeysetPage<Defi> findDefisPage(PageRequest page) {
+        return Keyset.fetch(em, Defi.class, "SELECT d FROM Defi d", null,
+                "d.id", Long.class, page, Map.of(), Defi::getId);
+    }
+
+    // Défis à flag des CTF dans un statut donné, avec leur CTF
+    public List<Defi> findAllWithFlagByCtfStatut(CtfStatut statut) {
+        return em.createQuery("SELECT d FROM Defi d JOIN FETCH d.ctf c WHERE d.flagHash IS NOT NULL AND c.statut = :statut", Defi.class)
+                .setParameter("statut", statut)
+                .getResultList();
+    }
+
+    public List<Defi> findAllWithFlagByCtf(Long ctfId) {
+        return em.createQuery("SELECT d FROM Defi d WHERE d.flagHash IS NOT NULL AND d.ctf.id = :ctfId", Defi.class)
+                .setParameter("ctfId", ctfId)
+                .getResultList();
+    }
+
+    public List<Defi> findAll() {
         return em.createQuery("SELECT d FROM Defi d", Defi.class)
                 .getResultList();
     }
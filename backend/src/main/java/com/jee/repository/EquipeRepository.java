@@ -1,11 +1,12 @@
 package com.jee.repository;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.Equipe;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 
-import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class EquipeRepository {
@@ -43,9 +44,9 @@ public class EquipeRepository {
         return count > 0;
     }
 
-    public List<Equipe> findAllEquipes() {
-        return em.createQuery("SELECT e FROM Equipe e", Equipe.class)
-                .getResultList();
+    public KeysetPage<Equipe> findEquipesPage(PageRequest page) {
+        return Keyset.fetch(em, Equipe.class, "SELECT e FROM Equipe e", null,
+                "e.id", Long.class, page, Map.of(), Equipe::getId);
     }
 
     public int countActiveMembresInEquipe(Long equipeId) {
@@ -0,0 +1,131 @@
+package com.jee.repository;
+
+import com.jee.entity.InboxEntry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+@ApplicationScoped
+public class InboxRepository {
+
+    // Une ligne de boîte de réception touchée par un lot : non lus à ajouter, aperçu et date du dernier message
+    public record InboxActivity(Long conversationId, String ownerEmail, int unread, String preview, Instant lastMessageAt) {
+    }
+
+    @Inject
+    EntityManager em;
+
+    public void persist(InboxEntry entry) {
+        em.persist(entry);
+    }
+
+    // Parcours de l'index (owner_email, last_message_at DESC), sans jointure
+    public List<InboxEntry> findByOwnerEmail(String ownerEmail) {
+        return em.createQuery("SELECT e FROM InboxEntry e WHERE e.ownerEmail = :ownerEmail ORDER BY e.lastMessageAt DESC",
+                        InboxEntry.class)
+                .setParameter("ownerEmail", ownerEmail)
+                .getResultList();
+    }
+
+    public int sumUnreadByOwnerEmail(String ownerEmail) {
+        Long total = em.createQuery("SELECT COALESCE(SUM(e.unreadCount), 0) FROM InboxEntry e WHERE e.ownerEmail = :ownerEmail",
+                        Long.class)
+                .setParameter("ownerEmail", ownerEmail)
+                .getSingleResult();
+        return total.intValue();
+    }
+
+    // Les deux lignes de la conversation en un UPDATE : aperçu et date pour les deux, +1 non lu pour le destinataire
+    public void recordMessage(Long conversationId, String recipientEmail, String preview, Instant sentAt) {
+        em.createQuery("""
+            UPDATE InboxEntry e
+            SET e.lastMessagePreview = :preview,
+                e.lastMessageAt = :sentAt,
+                e.unreadCount = e.unreadCount + CASE WHEN e.ownerEmail = :recipientEmail THEN 1 ELSE 0 END
+            WHERE e.conversationId = :conversationId""")
+                .setParameter("preview", preview)
+                .setParameter("sentAt", sentAt)
+                .setParameter("recipientEmail", recipientEmail)
+                .setParameter("conversationId", conversationId)
+                .executeUpdate();
+    }
+
+    // Même mise à jour que recordMessage pour plusieurs lignes, en un UPDATE (une seule entrée par ligne)
+    public void recordActivity(List<InboxActivity> activity) {
+        StringBuilder sql = new StringBuilder("UPDATE inbox_entries e SET last_message_preview = v.preview, last_message_at = v.at, "
+                + "unread_count = e.unread_count + v.unread FROM (VALUES ");
+        for (int i = 0; i < activity.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(CAST(:conversation").append(i).append(" AS bigint), CAST(:owner").append(i)
+                    .append(" AS varchar), CAST(:unread").append(i).append(" AS integer), CAST(:preview").append(i)
+                    .append(" AS varchar), CAST(:at").append(i).append(" AS timestamp with time zone))");
+        }
+        sql.append(") AS v(conversation_id, owner_email, unread, preview, at) "
+                + "WHERE e.conversation_id = v.conversation_id AND e.owner_email = v.owner_email");
+
+        Query query = em.createNativeQuery(sql.toString());
+        for (int i = 0; i < activity.size(); i++) {
+            InboxActivity entry = activity.get(i);
+            query.setParameter("conversation" + i, entry.conversationId())
+                    .setParameter("owner" + i, entry.ownerEmail())
+                    .setParameter("unread" + i, entry.unread())
+                    .setParameter("preview" + i, entry.preview())
+                    .setParameter("at" + i, entry.lastMessageAt());
+        }
+        query.executeUpdate();
+    }
+
+    /*
+     * Recompte après le repère de lecture : un message arrivé entre-temps reste non lu.
+     * La ligne est d'abord verrouillée : un envoi concurrent qui l'a déjà incrémentée est attendu, et le recompte,
+     * lancé ensuite dans une nouvelle instruction (READ COMMITTED), voit son message au lieu d'écraser son +1.
+     * Un envoi qui arrive après le verrou attend la fin de cette transaction pour ajouter le sien.
+     */
+    public void refreshUnreadCount(Long conversationId, String ownerEmail) {
+        em.createNativeQuery("SELECT 1 FROM inbox_entries WHERE owner_email = :ownerEmail AND conversation_id = :conversationId FOR UPDATE")
+                .setParameter("ownerEmail", ownerEmail)
+                .setParameter("conversationId", conversationId)
+                .getResultList();
+        em.createQuery("""
+            UPDATE InboxEntry e
+            SET e.unreadCount = (
+                SELECT COUNT(m) FROM Message m
+                WHERE m.discussion.id = :conversationId AND m.sender.email != :ownerEmail
+                AND m.id > COALESCE((SELECT rs.lastReadMessageId FROM ConversationReadState rs
+                                     WHERE rs.conversationId = :conversationId AND rs.userEmail = :ownerEmail), 0))
+            WHERE e.ownerEmail = :ownerEmail AND e.conversationId = :conversationId""")
+                .setParameter("conversationId", conversationId)
+                .setParameter("ownerEmail", ownerEmail)
+                .executeUpdate();
+    }
+
+    public boolean isEmpty() {
+        return em.createQuery("SELECT e.conversationId FROM InboxEntry e", Long.class)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // Deux lignes par conversation existante, calculées depuis les messages et les repères de lecture
+    public int backfill() {
+        return em.createNativeQuery("""
+            INSERT INTO inbox_entries (owner_email, conversation_id, other_user_email, other_user_pseudo, other_user_role,
+                                       last_message_preview, last_message_at, unread_count)
+            SELECT o.owner_email, c.id, u.email, u.pseudo, u.role,
+                   (SELECT LEFT(m.content, 200) FROM messages m WHERE m.conversation_id = c.id ORDER BY m.id DESC LIMIT 1),
+                   c.lastMessageAt,
+                   (SELECT COUNT(*) FROM messages m
+                    WHERE m.conversation_id = c.id AND m.sender_email <> o.owner_email
+                    AND m.id > COALESCE(rs.last_read_message_id, 0))
+            FROM conversations c
+            CROSS JOIN LATERAL (VALUES (c.user1_email, c.user2_email), (c.user2_email, c.user1_email)) AS o(owner_email, other_email)
+            JOIN users u ON u.email = o.other_email
+            LEFT JOIN conversation_read_states rs ON rs.conversation_id = c.id AND rs.user_email = o.owner_email
+            ON CONFLICT (owner_email, conversation_id) DO NOTHING""")
+                .executeUpdate();
+    }
+}
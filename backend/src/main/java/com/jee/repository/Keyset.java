@@ -0,0 +1,159 @@
+package com.jee.repository;
+
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.exceptionHandler.ApiException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Pagination par curseur (keyset) : au lieu d'un OFFSET, on reprend après la dernière clé renvoyée
+ * (WHERE key > :after ORDER BY key LIMIT n+1). Le coût d'une page ne dépend donc pas de la taille de la table.
+ * La clé doit être unique et indexée (id ou email).
+ */
+public final class Keyset {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private Keyset() {
+    }
+
+    public static <T, K extends Comparable<? super K>> KeysetPage<T> fetch(EntityManager em, Class<T> type,
+                                                                           String select, String where,
+                                                                           String keyPath, Class<K> keyType,
+                                                                           PageRequest page, Map<String, Object> params,
+                                                                           Function<T, K> keyOf) {
+        int limit = limitOf(page);
+        boolean descending = isDescending(page);
+        K after = decodeCursor(page.cursor, descending, keyType);
+
+        List<String> conditions = new ArrayList<>();
+        if (where != null) {
+            conditions.add("(" + where + ")");
+        }
+        if (after != null) {
+            conditions.add(keyPath + (descending ? " < " : " > ") + ":keysetAfter");
+        }
+
+        StringBuilder jpql = new StringBuilder(select);
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY ").append(keyPath).append(descending ? " DESC" : " ASC");
+
+        TypedQuery<T> query = em.createQuery(jpql.toString(), type).setMaxResults(limit + 1);
+        params.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("keysetAfter", after);
+        }
+
+        return toPage(query.getResultList(), limit, descending, keyOf);
+    }
+
+    // Même découpage sur une liste déjà en mémoire, triée par clé croissante
+    public static <T, K extends Comparable<? super K>> KeysetPage<T> slice(List<T> sortedAsc, Function<T, K> keyOf,
+                                                                           Class<K> keyType, PageRequest page) {
+        int limit = limitOf(page);
+        boolean descending = isDescending(page);
+        K after = decodeCursor(page.cursor, descending, keyType);
+
+        List<T> rows = new ArrayList<>(Math.min(limit + 1, sortedAsc.size()));
+        if (descending) {
+            int start = after == null ? sortedAsc.size() - 1 : firstIndexAtOrAbove(sortedAsc, keyOf, after) - 1;
+            for (int i = start; i >= 0 && rows.size() <= limit; i--) {
+                rows.add(sortedAsc.get(i));
+            }
+        } else {
+            int start = 0;
+            if (after != null) {
+                start = firstIndexAtOrAbove(sortedAsc, keyOf, after);
+                if (start < sortedAsc.size() && keyOf.apply(sortedAsc.get(start)).compareTo(after) == 0) {
+                    start++;
+                }
+            }
+            for (int i = start; i < sortedAsc.size() && rows.size() <= limit; i++) {
+                rows.add(sortedAsc.get(i));
+            }
+        }
+        return toPage(rows, limit, descending, keyOf);
+    }
+
+    private static <T, K extends Comparable<? super K>> int firstIndexAtOrAbove(List<T> sortedAsc, Function<T, K> keyOf, K key) {
+        int low = 0;
+        int high = sortedAsc.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyOf.apply(sortedAsc.get(mid)).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // On a lu limit + 1 lignes : la ligne en trop indique seulement qu'une page suivante existe
+    private static <T, K> KeysetPage<T> toPage(List<T> rows, int limit, boolean descending, Function<T, K> keyOf) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        K lastKey = keyOf.apply(items.get(limit - 1));
+        return new KeysetPage<>(List.copyOf(items), encodeCursor(descending, lastKey));
+    }
+
+    private static int limitOf(PageRequest page) {
+        return limitOf(page.limit);
+    }
+
+    public static int limitOf(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new ApiException(400, "INVALID_LIMIT", "Le paramètre limit doit être supérieur à 0.");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    private static boolean isDescending(PageRequest page) {
+        if (page.order == null || page.order.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (page.order.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new ApiException(400, "INVALID_ORDER", "Le paramètre order doit valoir asc ou desc.");
+    }
+
+    private static String encodeCursor(boolean descending, Object key) {
+        String raw = (descending ? "d:" : "a:") + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <K> K decodeCursor(String cursor, boolean descending, Class<K> keyType) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(descending ? "d:" : "a:")) {
+                throw new ApiException(400, "INVALID_CURSOR", "Le curseur ne correspond pas à l'ordre demandé.");
+            }
+            String key = raw.substring(2);
+            if (keyType == Long.class) {
+                return keyType.cast(Long.valueOf(key));
+            }
+            return keyType.cast(key);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "INVALID_CURSOR", "Curseur de pagination invalide.");
+        }
+    }
+}
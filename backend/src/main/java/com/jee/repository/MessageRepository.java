@@ -1,10 +1,15 @@
 package com.jee.repository;
 
+import com.jee.DTO.pagination.MessagePageRequest;
 import com.jee.entity.Message;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @ApplicationScoped
@@ -17,6 +22,51 @@ public class MessageRepository {
         em.persist(message);
     }
 
+    /*
+     * Insertion multi-lignes en un seul aller-retour (impossible avec persist et GenerationType.IDENTITY).
+     * Chaque ligne porte son rang dans la liste (ord) : les ids sont tirés de la séquence de la table pour chaque rang,
+     * insérés explicitement, puis rendus avec leur rang. Aucune hypothèse sur l'ordre de RETURNING.
+     */
+    public void insertAll(List<Message> messages) {
+        StringBuilder sql = new StringBuilder("WITH v (ord, conversation_id, sender_email, content, sent_at) AS (VALUES ");
+        for (int i = 0; i < messages.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(").append(i)
+                    .append(", CAST(:conversation").append(i).append(" AS bigint)")
+                    .append(", CAST(:sender").append(i).append(" AS varchar)")
+                    .append(", CAST(:content").append(i).append(" AS varchar)")
+                    .append(", CAST(:sentAt").append(i).append(" AS timestamp with time zone))");
+        }
+        sql.append("""
+            ), ids AS (
+                SELECT v.ord, nextval(pg_get_serial_sequence('messages', 'id')) AS id FROM v
+            ), inserted AS (
+                INSERT INTO messages (id, conversation_id, sender_email, content, sentAt, isRead)
+                SELECT ids.id, v.conversation_id, v.sender_email, v.content, v.sent_at, false
+                FROM v JOIN ids ON ids.ord = v.ord
+                RETURNING id
+            )
+            SELECT ids.id, ids.ord FROM ids JOIN inserted ON inserted.id = ids.id""");
+
+        Query query = em.createNativeQuery(sql.toString());
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            query.setParameter("conversation" + i, message.getConversation().getId())
+                    .setParameter("sender" + i, message.getSender().getEmail())
+                    .setParameter("content" + i, message.getContent())
+                    .setParameter("sentAt" + i, message.getSentAt());
+        }
+
+        List<?> rows = query.getResultList();
+        if (rows.size() != messages.size()) {
+            throw new IllegalStateException(rows.size() + " messages insérés sur " + messages.size());
+        }
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            messages.get(((Number) columns[1]).intValue()).setId(((Number) columns[0]).longValue());
+        }
+    }
+
     public Message findById(Long id) {
         return em.createQuery("SELECT m FROM Message m WHERE m.id = :id", Message.class)
                 .setParameter("id", id)
@@ -25,31 +75,55 @@ public class MessageRepository {
                 .orElse(null);
     }
 
-    public List<Message> findAllMessagesByConversationId(Long conversationId) {
-        return em.createQuery(
-                        "SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.sentAt ASC",
-                        Message.class)
-                .setParameter("conversationId", conversationId)
-                .getResultList();
-    }
+    /*
+     * Une page de messages dans l'ordre chronologique, lue sur l'index (conversation_id, id) :
+     * sans curseur ou avec before, les plus récents (ORDER BY id DESC puis inversés) ;
+     * avec after seul, les plus anciens après ce message. unreadRecipientEmail non null : seulement
+     * les messages reçus par cet utilisateur après son dernier message lu. Le curseur renvoyé est l'id à repasser dans le même paramètre.
+     */
+    public KeysetPage<Message> findPageByConversationId(Long conversationId, MessagePageRequest page,
+                                                        String unreadRecipientEmail) {
+        int limit = Keyset.limitOf(page.limit);
+        boolean forward = page.after != null && page.before == null;
 
-    public int countUnreadMessagesByConversationAndRecipient(Long conversationId, String recipientEmail) {
-        Long count = em.createQuery(
-                        "SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId " +
-                        "AND m.sender.email != :recipientEmail AND m.isRead = false",
-                        Long.class)
-                .setParameter("conversationId", conversationId)
-                .setParameter("recipientEmail", recipientEmail)
-                .getSingleResult();
-        return count.intValue();
-    }
+        StringBuilder jpql = new StringBuilder("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.discussion.id = :conversationId");
+        if (page.before != null) {
+            jpql.append(" AND m.id < :before");
+        }
+        if (page.after != null) {
+            jpql.append(" AND m.id > :after");
+        }
+        if (unreadRecipientEmail != null) {
+            jpql.append(" AND m.sender.email != :recipientEmail AND m.id > COALESCE((SELECT rs.lastReadMessageId")
+                    .append(" FROM ConversationReadState rs WHERE rs.conversationId = :conversationId")
+                    .append(" AND rs.userEmail = :recipientEmail), 0)");
+        }
+        jpql.append(forward ? " ORDER BY m.id ASC" : " ORDER BY m.id DESC");
 
-    public void markMessagesAsReadByRecipient(Long conversationId, String recipientEmail) {
-        em.createQuery(
-                        "UPDATE Message m SET m.isRead = true WHERE m.conversation.id = :conversationId " +
-                        "AND m.sender.email != :recipientEmail AND m.isRead = false")
+        TypedQuery<Message> query = em.createQuery(jpql.toString(), Message.class)
                 .setParameter("conversationId", conversationId)
-                .setParameter("recipientEmail", recipientEmail)
-                .executeUpdate();
+                .setMaxResults(limit + 1);
+        if (page.before != null) {
+            query.setParameter("before", page.before);
+        }
+        if (page.after != null) {
+            query.setParameter("after", page.after);
+        }
+        if (unreadRecipientEmail != null) {
+            query.setParameter("recipientEmail", unreadRecipientEmail);
+        }
+
+        // limit + 1 lignes lues : la ligne en trop indique seulement qu'il reste des messages
+        List<Message> rows = query.getResultList();
+        boolean hasMore = rows.size() > limit;
+        List<Message> items = new ArrayList<>(hasMore ? rows.subList(0, limit) : rows);
+        if (!forward) {
+            Collections.reverse(items);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = String.valueOf(forward ? items.get(items.size() - 1).getId() : items.get(0).getId());
+        }
+        return new KeysetPage<>(items, nextCursor);
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,16 @@
 package com.jee.repository;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.ParticipationSoloCtf;
+import com.jee.entity.enums.ParticipationFilter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class ParticipationRepository {
@@ -67,29 +72,49 @@ public class ParticipationRepository {
 
     //    Trouver toutes les participations actives/inactives/toutes pour un ctf donné
 
-    public List<ParticipationSoloCtf> findActiveParticipationsByCtfId(Long ctfId) {
+    public KeysetPage<ParticipationSoloCtf> findParticipationsPageByCtfId(Long ctfId, ParticipationFilter filter,
+                                                                           PageRequest page) {
+        String where = switch (filter) {
+            case ACTIVE -> "pc.ctf.id = :ctfId AND pc.leftAt IS NULL AND pc.completedAt IS NULL";
+            case INACTIVE -> "pc.ctf.id = :ctfId AND (pc.leftAt IS NOT NULL OR pc.completedAt IS NOT NULL)";
+            case ALL -> "pc.ctf.id = :ctfId";
+        };
+        return Keyset.fetch(em, ParticipationSoloCtf.class,
+                "SELECT pc FROM ParticipationSoloCtf pc JOIN FETCH pc.participant JOIN FETCH pc.ctf", where,
+                "pc.id", Long.class, page, Map.of("ctfId", ctfId), ParticipationSoloCtf::getId);
+    }
+
+
+
+
+    // (ctfId, email, pseudo) des participations en cours ou terminées, sans charger les entités
+    public List<Tuple> findParticipantKeys() {
         return em.createQuery("""
-            SELECT pc FROM ParticipationSoloCtf pc WHERE pc.ctf.id = :ctfId
-            AND pc.leftAt IS NULL AND pc.completedAt IS NULL""", ParticipationSoloCtf.class)
-                .setParameter("ctfId", ctfId)
+            SELECT pc.ctf.id AS ctfId, p.email AS email, p.pseudo AS pseudo
+            FROM ParticipationSoloCtf pc JOIN pc.participant p
+            WHERE pc.leftAt IS NULL""", Tuple.class)
                 .getResultList();
     }
 
-    public List<ParticipationSoloCtf> findInactiveParticipationsByCtfId(Long ctfId) {
+    // Mêmes colonnes, pour les inscriptions depuis une date donnée
+    public List<Tuple> findParticipantKeysSince(Instant since) {
         return em.createQuery("""
-                        SELECT pc FROM ParticipationSoloCtf pc WHERE pc.ctf.id = :ctfId
-            AND (pc.leftAt IS NOT NULL OR pc.completedAt IS NOT NULL)""", ParticipationSoloCtf.class)
-                .setParameter("ctfId", ctfId)
+            SELECT pc.ctf.id AS ctfId, p.email AS email, p.pseudo AS pseudo
+            FROM ParticipationSoloCtf pc JOIN pc.participant p
+            WHERE pc.leftAt IS NULL AND pc.joinedAt >= :since""", Tuple.class)
+                .setParameter("since", since)
                 .getResultList();
     }
 
-    public List<ParticipationSoloCtf> findAllParticipationsByCtfId(Long ctfId) {
+    // Départs depuis une date donnée, sauf ceux qui ont rejoint le CTF à nouveau
+    public List<Tuple> findLeftKeysSince(Instant since) {
         return em.createQuery("""
-            SELECT pc FROM ParticipationSoloCtf pc WHERE pc.ctf.id = :ctfId""", ParticipationSoloCtf.class)
-                .setParameter("ctfId", ctfId)
+            SELECT pc.ctf.id AS ctfId, pc.participant.email AS email
+            FROM ParticipationSoloCtf pc
+            WHERE pc.leftAt >= :since AND NOT EXISTS (
+                SELECT 1 FROM ParticipationSoloCtf active
+                WHERE active.ctf = pc.ctf AND active.participant = pc.participant AND active.leftAt IS NULL)""", Tuple.class)
+                .setParameter("since", since)
                 .getResultList();
     }
-
-
-
 }
@@ -0,0 +1,64 @@
+package com.jee.repository;
+
+import com.jee.entity.Defi;
+import com.jee.entity.Participant;
+import com.jee.entity.ResolutionDefi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class ResolutionDefiRepository {
+
+    @Inject
+    EntityManager em;
+
+    // Références seulement : ni le participant ni le défi ne sont chargés
+    public void persist(Long defiId, String participantEmail, int points, Instant solvedAt, int ordre) {
+        em.persist(new ResolutionDefi(
+                em.getReference(Participant.class, participantEmail),
+                em.getReference(Defi.class, defiId),
+                points,
+                solvedAt,
+                ordre));
+    }
+
+    public void flush() {
+        em.flush();
+        em.clear();
+    }
+
+    // Toutes les résolutions, sans charger les entités ; utilisé au démarrage quand il n'y a pas d'instantané
+    public List<Tuple> findAllSolves() {
+        return em.createQuery("""
+            SELECT d.id AS defiId, c.id AS ctfId, p.email AS email, p.pseudo AS pseudo,
+                   r.solvedAt AS solvedAt, r.ordre AS ordre
+            FROM ResolutionDefi r JOIN r.defi d LEFT JOIN d.ctf c JOIN r.participant p
+            ORDER BY r.id""", Tuple.class)
+                .getResultList();
+    }
+
+    // (defiId, email) déjà en base parmi les combinaisons données
+    public List<Tuple> findSolveKeys(Collection<Long> defiIds, Collection<String> emails) {
+        return em.createQuery("""
+            SELECT r.defi.id AS defiId, r.participant.email AS email
+            FROM ResolutionDefi r
+            WHERE r.defi.id IN :defiIds AND r.participant.email IN :emails""", Tuple.class)
+                .setParameter("defiIds", defiIds)
+                .setParameter("emails", emails)
+                .getResultList();
+    }
+
+    // Tous les résolveurs déjà en base prennent la nouvelle valeur du défi
+    public int updateDefiPoints(Long defiId, int points) {
+        return em.createQuery("UPDATE ResolutionDefi r SET r.points = :points WHERE r.defi.id = :defiId")
+                .setParameter("points", points)
+                .setParameter("defiId", defiId)
+                .executeUpdate();
+    }
+}
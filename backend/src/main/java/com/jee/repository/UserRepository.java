@@ -1,5 +1,6 @@
 package com.jee.repository;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.Organisateur;
 import com.jee.entity.Participant;
 import com.jee.entity.User;
@@ -7,8 +8,11 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.Query;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 
 @ApplicationScoped
@@ -22,22 +26,19 @@ public class UserRepository {
     }
 
 
-    public List<User> findAllUsers() {
-        return em.createQuery(
-                "SELECT u FROM User u", User.class)
-                .getResultList();
+    public KeysetPage<User> findUsersPage(PageRequest page) {
+        return Keyset.fetch(em, User.class, "SELECT u FROM User u", null,
+                "u.email", String.class, page, Map.of(), User::getEmail);
     }
 
-    public List<Participant> findAllParticipantUsers() {
-        return em.createQuery(
-                "SELECT p FROM Participant p", Participant.class)
-                .getResultList();
+    public KeysetPage<Participant> findParticipantsPage(PageRequest page) {
+        return Keyset.fetch(em, Participant.class, "SELECT p FROM Participant p", null,
+                "p.email", String.class, page, Map.of(), Participant::getEmail);
     }
 
-    public List<Organisateur> findAllOrganisateurUsers() {
-        return em.createQuery(
-                "SELECT o FROM Organisateur o", Organisateur.class)
-                .getResultList();
+    public KeysetPage<Organisateur> findOrganisateursPage(PageRequest page) {
+        return Keyset.fetch(em, Organisateur.class, "SELECT o FROM Organisateur o", null,
+                "o.email", String.class, page, Map.of(), Organisateur::getEmail);
     }
 
     public List<User> findAllUnbannedUsers() {
@@ -83,4 +84,35 @@ public class UserRepository {
                 .getSingleResult();
         return count > 0;
     }
+
+    // Un seul UPDATE pour tous les participants du lot (même principe que CtfRepository#addViews)
+    public int addScores(Map<String, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder query = new StringBuilder("UPDATE Participant p SET p.score = p.score + CASE p.email");
+        List<String> emails = new ArrayList<>(deltas.keySet());
+        for (int i = 0; i < emails.size(); i++) {
+            query.append(" WHEN :email").append(i).append(" THEN :delta").append(i);
+        }
+        query.append(" ELSE 0 END WHERE p.email IN :emails");
+
+        Query update = em.createQuery(query.toString()).setParameter("emails", emails);
+        for (int i = 0; i < emails.size(); i++) {
+            update.setParameter("email" + i, emails.get(i));
+            update.setParameter("delta" + i, deltas.get(emails.get(i)));
+        }
+        return update.executeUpdate();
+    }
+
+    // Même écart pour tous les participants ayant déjà résolu le défi : un seul UPDATE
+    public int addScoreToSolvers(Long defiId, int delta) {
+        return em.createQuery("""
+            UPDATE Participant p SET p.score = p.score + :delta
+            WHERE p.email IN (SELECT r.participant.email FROM ResolutionDefi r WHERE r.defi.id = :defiId)""")
+                .setParameter("delta", delta)
+                .setParameter("defiId", defiId)
+                .executeUpdate();
+    }
 }
@@ -0,0 +1,67 @@
+package com.jee.service;
+
+import com.jee.event.DefiChangedEvent;
+import com.jee.event.EquipeChangedEvent;
+import com.jee.filter.Aggregate;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numéro de version par agrégat, incrémenté après chaque commit qui le modifie.
+ * Sert à calculer les ETags sans exécuter la requête de lecture.
+ * La version CTF est incrémentée par CtfCatalogCache#invalidateAll, après le vidage du cache.
+ */
+@ApplicationScoped
+public class AggregateVersions {
+
+    // Les compteurs repartent de 0 au redémarrage : l'instant de démarrage évite de réutiliser un ancien ETag
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+
+    public AggregateVersions() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+        }
+    }
+
+    public long current(Aggregate aggregate) {
+        return versions.get(aggregate).get();
+    }
+
+    public void bump(Aggregate aggregate) {
+        versions.get(aggregate).incrementAndGet();
+    }
+
+    // ETag fort : même agrégat, même version et mêmes paramètres => même réponse.
+    // Les paramètres entrent par un SHA-256 : deux requêtes différentes ne partagent pas d'ETag
+    public String etag(Aggregate aggregate, String variant) {
+        return "\"" + aggregate.name().toLowerCase() + "-" + bootId + "-" + current(aggregate)
+                + "-" + digest(variant == null ? "" : variant) + "\"";
+    }
+
+    private static String digest(String variant) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(variant.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void onEquipeChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) EquipeChangedEvent event) {
+        bump(Aggregate.EQUIPE);
+    }
+
+    void onDefiChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) DefiChangedEvent event) {
+        bump(Aggregate.DEFI);
+    }
+}
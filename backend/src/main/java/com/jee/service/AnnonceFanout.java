@@ -0,0 +1,145 @@
+package com.jee.service;
+
+import com.jee.DTO.annonce.AnnoncePushFrame;
+import com.jee.DTO.annonce.AnnonceResponse;
+import com.jee.entity.Annonce;
+import com.jee.event.AnnonceCreatedEvent;
+import com.jee.repository.AnnonceRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution des annonces : un thread dédié parcourt les participations actives du CTF par lots
+ * (ctf.annonces.fanout.batch-size), écrit les remises de chaque lot en une transaction avec l'avancement
+ * de l'annonce, puis pousse l'annonce aux participants connectés sur /messaging/ws.
+ * Le curseur est enregistré avec chaque lot : une distribution interrompue reprend au démarrage suivant
+ * sans remettre deux fois la même annonce.
+ */
+@ApplicationScoped
+public class AnnonceFanout {
+
+    private static final Logger LOG = Logger.getLogger(AnnonceFanout.class);
+
+    private record Batch(AnnonceResponse annonce, List<String> recipients, boolean finished) {
+    }
+
+    @Inject
+    AnnonceRepository annonceRepository;
+    @Inject
+    MessagingSessions messagingSessions;
+
+    @ConfigProperty(name = "ctf.annonces.fanout.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "ctf.annonces.fanout.retry-delay", defaultValue = "5s")
+    Duration retryDelay;
+
+    private final LinkedBlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        List<Long> undelivered = annonceRepository.findUndeliveredIds();
+        if (!undelivered.isEmpty()) {
+            LOG.infof("%d annonces à distribuer reprises", undelivered.size());
+            queue.addAll(undelivered);
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("annonce-fanout").daemon().start(this::run);
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        if (worker != null) {
+            running = false;
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Après le commit : une annonce annulée n'est jamais distribuée
+    void onAnnonceCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) AnnonceCreatedEvent event) {
+        queue.add(event.annonceId);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Long annonceId = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (annonceId != null) {
+                    distribute(annonceId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void distribute(Long annonceId) throws InterruptedException {
+        while (running) {
+            Batch batch;
+            try {
+                batch = deliverNext(annonceId);
+            } catch (RuntimeException e) {
+                // Le lot est annulé avec son curseur : il sera rejoué, après les autres annonces en attente
+                LOG.errorf(e, "Echec de la distribution de l'annonce %d", annonceId);
+                Thread.sleep(retryDelay.toMillis());
+                queue.add(annonceId);
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            if (!batch.recipients().isEmpty()) {
+                messagingSessions.push(batch.recipients(), new AnnoncePushFrame(batch.annonce()));
+            }
+            if (batch.finished()) {
+                LOG.debugf("Annonce %d remise à %d participants", annonceId, (Integer) batch.annonce().recipientCount);
+                return;
+            }
+        }
+    }
+
+    // Un lot par transaction : remises et curseur sont commités ensemble
+    @Transactional
+    Batch deliverNext(Long annonceId) {
+        Annonce annonce = annonceRepository.findWithCtfAndAuteur(annonceId);
+        if (annonce == null || annonce.getDeliveredAt() != null) {
+            return null;
+        }
+
+        Instant now = Instant.now();
+        List<AnnonceRepository.Delivery> deliveries = annonceRepository.deliverBatch(annonceId, annonce.getCtf().getId(),
+                annonce.getFanoutCursor(), batchSize, now);
+        List<String> recipients = new ArrayList<>(deliveries.size());
+        for (AnnonceRepository.Delivery delivery : deliveries) {
+            if (delivery.inserted()) {
+                recipients.add(delivery.participantEmail());
+            }
+        }
+
+        if (!deliveries.isEmpty()) {
+            annonce.setFanoutCursor(deliveries.get(deliveries.size() - 1).participationId());
+        }
+        annonce.setRecipientCount(annonce.getRecipientCount() + recipients.size());
+        boolean finished = deliveries.size() < batchSize;
+        if (finished) {
+            annonce.setDeliveredAt(now);
+        }
+        return new Batch(AnnonceService.toResponse(annonce), recipients, finished);
+    }
+}
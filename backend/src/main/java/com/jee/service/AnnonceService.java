@@ -0,0 +1,114 @@
+package com.jee.service;
+
+import com.jee.DTO.annonce.AnnonceResponse;
+import com.jee.DTO.annonce.CreateAnnonceRequest;
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.entity.Annonce;
+import com.jee.entity.CTF;
+import com.jee.entity.User;
+import com.jee.entity.enums.CtfStatut;
+import com.jee.event.AnnonceCreatedEvent;
+import com.jee.exceptionHandler.ApiException;
+import com.jee.repository.AnnonceRepository;
+import com.jee.repository.CtfRepository;
+import com.jee.repository.KeysetPage;
+import com.jee.repository.UserRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.time.Instant;
+
+@ApplicationScoped
+public class AnnonceService {
+
+    @Inject
+    AnnonceRepository annonceRepository;
+
+    @Inject
+    CtfRepository ctfRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    Event<AnnonceCreatedEvent> annonceCreatedEvent;
+
+    // Seule l'annonce est écrite ici : la distribution aux participants est faite par AnnonceFanout après le commit
+    @Transactional
+    public AnnonceResponse publishAnnonce(Long ctfId, String requesterEmail, boolean isAdmin, CreateAnnonceRequest request) {
+        if (request == null || request.content == null || request.content.trim().isEmpty()) {
+            throw new ApiException(400, "EMPTY_ANNONCE", "L'annonce ne peut pas être vide.");
+        }
+
+        if (request.content.length() > 5000) {
+            throw new ApiException(400, "ANNONCE_TOO_LONG", "L'annonce ne peut pas dépasser 5000 caractères.");
+        }
+
+        CTF ctf = ctfRepository.findById(ctfId);
+        if (ctf == null) {
+            throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable d'id : " + ctfId);
+        }
+
+        if (!isAdmin) {
+            // Vérifier que le demandeur est l'organisateur du CTF
+            if (!ctf.getContact().getEmail().equals(requesterEmail)) {
+                throw new ApiException(403, "CTF_NOT_OWNER", "Vous n'êtes pas autorisé à publier une annonce pour ce CTF.");
+            }
+        }
+
+        if (ctf.getStatut() != CtfStatut.ACTIF) {
+            throw new ApiException(409, "CTF_NOT_ACTIVE", "Seul un CTF actif peut recevoir des annonces.");
+        }
+
+        User auteur = userRepository.findUserByEmail(requesterEmail);
+        if (auteur == null) {
+            throw new ApiException(404, "USER_NOT_FOUND", "Utilisateur introuvable: " + requesterEmail);
+        }
+
+        Annonce annonce = new Annonce();
+        annonce.setCtf(ctf);
+        annonce.setAuteur(auteur);
+        annonce.setContent(request.content.trim());
+        annonce.setCreatedAt(Instant.now());
+        annonceRepository.persist(annonce);
+
+        annonceCreatedEvent.fire(new AnnonceCreatedEvent(annonce.getId()));
+        return toResponse(annonce);
+    }
+
+    // Annonces d'un CTF avec l'avancement de leur distribution, pour son organisateur
+    public KeysetPage<AnnonceResponse> getCtfAnnonces(Long ctfId, String requesterEmail, boolean isAdmin, PageRequest page) {
+        CTF ctf = ctfRepository.findById(ctfId);
+        if (ctf == null) {
+            throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable d'id : " + ctfId);
+        }
+        if (!isAdmin) {
+            // Vérifier que le demandeur est l'organisateur du CTF
+            if (!ctf.getContact().getEmail().equals(requesterEmail)) {
+                throw new ApiException(403, "CTF_NOT_OWNER", "Vous n'êtes pas autorisé à voir les annonces de ce CTF.");
+            }
+        }
+
+        return annonceRepository.findPageByCtfId(ctfId, page).map(AnnonceService::toResponse);
+    }
+
+    // Annonces remises à un participant : rattrapage de celles poussées pendant qu'il n'était pas connecté
+    public KeysetPage<AnnonceResponse> getMyAnnonces(String participantEmail, PageRequest page) {
+        return annonceRepository.findPageByParticipantEmail(participantEmail, page).map(AnnonceService::toResponse);
+    }
+
+    static AnnonceResponse toResponse(Annonce annonce) {
+        AnnonceResponse response = new AnnonceResponse();
+        response.id = annonce.getId();
+        response.ctfId = annonce.getCtf().getId();
+        response.ctfTitre = annonce.getCtf().getTitre();
+        response.auteurPseudo = annonce.getAuteur().getPseudo();
+        response.content = annonce.getContent();
+        response.createdAt = annonce.getCreatedAt();
+        response.recipientCount = annonce.getRecipientCount();
+        response.delivered = annonce.getDeliveredAt() != null;
+        return response;
+    }
+}
@@ -1,12 +1,14 @@
 package com.jee.service;
 
 import com.jee.DTO.commentaire.CommentContentResponse;
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.entity.CTF;
 import com.jee.entity.CommentaireCtf;
 import com.jee.entity.User;
 import com.jee.exceptionHandler.ApiException;
 import com.jee.repository.CommentsRepository;
 import com.jee.repository.CtfRepository;
+import com.jee.repository.KeysetPage;
 import com.jee.repository.UserRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -24,16 +26,16 @@ public class CommentaireService {
     @Inject
     UserRepository userRepository;
 
-    public List<CommentContentResponse> getCommentsForCtf(Long ctfId) {
+    public KeysetPage<CommentContentResponse> getCommentsForCtf(Long ctfId, PageRequest page) {
 
         CTF ctf = ctfRepository.findById(ctfId);
         if (ctf == null) {
             throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable avec l'id : " + ctfId);
         }
 
-        List<CommentaireCtf> comments = commentsRepository.findAllByCtfId(ctfId);
+        KeysetPage<CommentaireCtf> comments = commentsRepository.findPageByCtfId(ctfId, page);
 
-        return comments.stream().map(comment -> {
+        return comments.map(comment -> {
             CommentContentResponse response = new CommentContentResponse();
             response.id = comment.getId();
             response.userPseudo = comment.getUser().getPseudo();
@@ -41,7 +43,7 @@ public class CommentaireService {
             response.contenu = comment.getContenu();
             response.date = comment.getDate().toString();
             return response;
-        }).toList();
+        });
     }
 
     public List<CommentContentResponse> getCommentsForUser(String userEmail) {
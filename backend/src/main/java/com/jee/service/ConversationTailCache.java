@@ -0,0 +1,345 @@
+package com.jee.service;
+
+import com.jee.DTO.messaging.MessageResponse;
+import com.jee.DTO.pagination.MessagePageRequest;
+import com.jee.entity.Message;
+import com.jee.event.MessageSentEvent;
+import com.jee.repository.Keyset;
+import com.jee.repository.KeysetPage;
+import com.jee.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Derniers messages des conversations les plus lues, hors du tas : une arène ByteBuffer directe découpée
+ * en emplacements de taille fixe, un par conversation, qui contient ses derniers messages sous forme
+ * d'enregistrements UTF-8 préfixés par leur longueur. Quand l'arène est pleine, la conversation lue le moins
+ * récemment est évincée (LRU).
+ * Le cache est découpé en tranches par id de conversation, chacune avec ses emplacements, sa table LRU et son verrou :
+ * lectures, chargements et ajouts de conversations différentes ne s'attendent pas.
+ * Un emplacement contient tous les messages de la conversation à partir de oldestId : il sert la première page
+ * et les lectures ?after= (long-polling) ; les pages ?before= vont en base. isRead n'est pas mis en cache,
+ * il dépend du lecteur et est calculé par MessagingService.
+ */
+@ApplicationScoped
+public class ConversationTailCache {
+
+    // Longueur, id, sentAt (secondes, nanos), puis trois longueurs de chaîne
+    private static final int RECORD_HEADER = Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES + 3 * Integer.BYTES;
+    private static final int GENERATIONS = 256;
+    // Puissance de deux qui divise GENERATIONS : un compteur de génération appartient toujours à la même tranche
+    private static final int MAX_STRIPES = 16;
+
+    private static final class Entry {
+        final int slot;
+        int length;
+        int count;
+        long oldestId;
+        long newestId;
+        // Vrai si l'emplacement contient toute la conversation
+        boolean complete;
+
+        Entry(int slot) {
+            this.slot = slot;
+        }
+    }
+
+    @ConfigProperty(name = "ctf.messaging.tail-cache.enabled", defaultValue = "true")
+    boolean enabled;
+    @ConfigProperty(name = "ctf.messaging.tail-cache.arena-bytes", defaultValue = "33554432")
+    int arenaBytes;
+    @ConfigProperty(name = "ctf.messaging.tail-cache.slot-bytes", defaultValue = "65536")
+    int slotBytes;
+    @ConfigProperty(name = "ctf.messaging.tail-cache.messages", defaultValue = "100")
+    int tailSize;
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    }
+
+    @Inject
+    MessageRepository messageRepository;
+
+    private ByteBuffer arena;
+    private Stripe[] stripes;
+
+    // Incrémentée à chaque message envoyé dans une conversation du compteur : un chargement commencé avant n'est pas conservé.
+    // Chaque compteur est protégé par le verrou de la tranche de ses conversations
+    private final long[] generations = new long[GENERATIONS];
+
+    @PostConstruct
+    void init() {
+        tailSize = Math.min(tailSize, Keyset.MAX_LIMIT);
+        int slots = enabled ? arenaBytes / slotBytes : 0;
+        if (slots > 0) {
+            arena = ByteBuffer.allocateDirect(slots * slotBytes);
+            stripes = new Stripe[Integer.highestOneBit(Math.min(MAX_STRIPES, slots))];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe();
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                stripes[slot % stripes.length].freeSlots.add(slot);
+            }
+        }
+    }
+
+    /*
+     * La page demandée, lue dans l'emplacement de la conversation (chargé depuis la base s'il n'y est pas),
+     * ou null si elle ne peut pas être servie depuis les derniers messages. isRead est laissé à false.
+     */
+    public KeysetPage<MessageResponse> page(Long conversationId, MessagePageRequest page) {
+        if (arena == null || page.before != null) {
+            return null;
+        }
+
+        KeysetPage<MessageResponse> cached = read(conversationId, page);
+        if (cached != null) {
+            return cached;
+        }
+
+        Stripe stripe = stripe(conversationId);
+        long loadGeneration;
+        stripe.lock.lock();
+        try {
+            loadGeneration = generations[generation(conversationId)];
+        } finally {
+            stripe.lock.unlock();
+        }
+        KeysetPage<Message> tail = messageRepository.findPageByConversationId(conversationId,
+                new MessagePageRequest(null, null, tailSize), null);
+        List<byte[]> records = new ArrayList<>(tail.items.size());
+        for (Message message : tail.items) {
+            records.add(encode(message.getId(), message.getSentAt(), message.getSender().getEmail(),
+                    message.getSender().getPseudo(), message.getContent()));
+        }
+        store(stripe, conversationId, loadGeneration, records, tail.nextCursor == null);
+
+        return slice(decode(concat(records)), tail.nextCursor == null, page);
+    }
+
+    private KeysetPage<MessageResponse> read(Long conversationId, MessagePageRequest page) {
+        Stripe stripe = stripe(conversationId);
+        byte[] bytes;
+        boolean complete;
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(conversationId);
+            if (entry == null) {
+                return null;
+            }
+            bytes = new byte[entry.length];
+            arena.get(entry.slot * slotBytes, bytes);
+            complete = entry.complete;
+        } finally {
+            stripe.lock.unlock();
+        }
+        return slice(decode(bytes), complete, page);
+    }
+
+    // Même découpage que MessageRepository#findPageByConversationId, sur les derniers messages
+    private static KeysetPage<MessageResponse> slice(List<MessageResponse> tail, boolean complete, MessagePageRequest page) {
+        int limit = Keyset.limitOf(page.limit);
+        if (page.after != null) {
+            // Des messages plus anciens que les derniers peuvent manquer
+            if (!complete && (tail.isEmpty() || page.after < tail.get(0).id)) {
+                return null;
+            }
+            List<MessageResponse> newer = new ArrayList<>();
+            for (MessageResponse message : tail) {
+                if (message.id > page.after) {
+                    newer.add(message);
+                }
+            }
+            if (newer.size() <= limit) {
+                return new KeysetPage<>(newer, null);
+            }
+            List<MessageResponse> items = new ArrayList<>(newer.subList(0, limit));
+            return new KeysetPage<>(items, String.valueOf(items.get(items.size() - 1).id));
+        }
+        if (tail.size() > limit) {
+            List<MessageResponse> items = new ArrayList<>(tail.subList(tail.size() - limit, tail.size()));
+            return new KeysetPage<>(items, String.valueOf(items.get(0).id));
+        }
+        // Sans la conversation entière, on ne sait pas s'il existe une page précédente
+        return complete ? new KeysetPage<>(tail, null) : null;
+    }
+
+    private void store(Stripe stripe, Long conversationId, long loadGeneration, List<byte[]> records, boolean complete) {
+        stripe.lock.lock();
+        try {
+            if (generations[generation(conversationId)] != loadGeneration || stripe.entries.containsKey(conversationId)) {
+                return;
+            }
+            // Les plus récents qui tiennent dans un emplacement
+            int first = records.size();
+            int length = 0;
+            while (first > 0 && length + records.get(first - 1).length <= slotBytes) {
+                length += records.get(--first).length;
+            }
+            if (first == records.size() && !records.isEmpty()) {
+                return;
+            }
+
+            Entry entry = new Entry(allocateSlot(stripe));
+            entry.complete = complete && first == 0;
+            for (byte[] record : records.subList(first, records.size())) {
+                append(entry, record);
+            }
+            stripe.entries.put(conversationId, entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static int allocateSlot(Stripe stripe) {
+        if (stripe.freeSlots.isEmpty()) {
+            Iterator<Map.Entry<Long, Entry>> eldest = stripe.entries.entrySet().iterator();
+            stripe.freeSlots.add(eldest.next().getValue().slot);
+            eldest.remove();
+        }
+        return stripe.freeSlots.poll();
+    }
+
+    private void append(Entry entry, byte[] record) {
+        arena.put(entry.slot * slotBytes + entry.length, record);
+        long id = ByteBuffer.wrap(record).getLong(Integer.BYTES);
+        if (entry.count == 0) {
+            entry.oldestId = id;
+        }
+        entry.newestId = id;
+        entry.length += record.length;
+        entry.count++;
+    }
+
+    // Le message est ajouté à l'emplacement s'il existe, en retirant les plus anciens au besoin
+    void onMessageSent(@Observes(during = TransactionPhase.AFTER_SUCCESS) MessageSentEvent event) {
+        if (arena == null) {
+            return;
+        }
+        Stripe stripe = stripe(event.conversationId);
+        stripe.lock.lock();
+        try {
+            generations[generation(event.conversationId)]++;
+            Entry entry = stripe.entries.get(event.conversationId);
+            if (entry == null || event.messageId <= entry.newestId) {
+                // Déjà chargé depuis la base, ou commité dans le désordre : l'emplacement n'est plus sûr
+                if (entry != null && event.messageId >= entry.oldestId) {
+                    evict(stripe, event.conversationId, entry);
+                }
+                return;
+            }
+
+            byte[] record = encode(event.messageId, event.sentAt, event.senderEmail, event.senderPseudo, event.content);
+            if (record.length > slotBytes) {
+                evict(stripe, event.conversationId, entry);
+                return;
+            }
+            if (entry.count >= tailSize || entry.length + record.length > slotBytes) {
+                dropOldest(entry, record.length);
+            }
+            append(entry, record);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void dropOldest(Entry entry, int needed) {
+        int base = entry.slot * slotBytes;
+        int offset = 0;
+        int count = entry.count;
+        while (count > 0 && (count >= tailSize || entry.length - offset + needed > slotBytes)) {
+            offset += arena.getInt(base + offset);
+            count--;
+        }
+        byte[] kept = new byte[entry.length - offset];
+        arena.get(base + offset, kept);
+        arena.put(base, kept);
+        entry.length = kept.length;
+        entry.count = count;
+        entry.complete = false;
+        if (count > 0) {
+            entry.oldestId = arena.getLong(base + Integer.BYTES);
+        }
+    }
+
+    private static void evict(Stripe stripe, Long conversationId, Entry entry) {
+        stripe.entries.remove(conversationId);
+        stripe.freeSlots.add(entry.slot);
+    }
+
+    private Stripe stripe(Long conversationId) {
+        return stripes[(int) (conversationId & (stripes.length - 1))];
+    }
+
+    private static int generation(Long conversationId) {
+        return (int) (conversationId & (GENERATIONS - 1));
+    }
+
+    private static byte[] encode(long id, Instant sentAt, String senderEmail, String senderPseudo, String content) {
+        byte[] email = senderEmail.getBytes(StandardCharsets.UTF_8);
+        byte[] pseudo = senderPseudo.getBytes(StandardCharsets.UTF_8);
+        byte[] text = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + email.length + pseudo.length + text.length);
+        record.putInt(record.capacity())
+                .putLong(id)
+                .putLong(sentAt.getEpochSecond())
+                .putInt(sentAt.getNano())
+                .putInt(email.length).put(email)
+                .putInt(pseudo.length).put(pseudo)
+                .putInt(text.length).put(text);
+        return record.array();
+    }
+
+    private static List<MessageResponse> decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<MessageResponse> messages = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            buffer.getInt();
+            MessageResponse message = new MessageResponse();
+            message.id = buffer.getLong();
+            long seconds = buffer.getLong();
+            message.sentAt = Instant.ofEpochSecond(seconds, buffer.getInt());
+            message.senderEmail = string(buffer);
+            message.senderPseudo = string(buffer);
+            message.content = string(buffer);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] concat(List<byte[]> records) {
+        int length = 0;
+        for (byte[] record : records) {
+            length += record.length;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        for (byte[] record : records) {
+            bytes.put(record);
+        }
+        return bytes.array();
+    }
+}
@@ -0,0 +1,87 @@
+package com.jee.service;
+
+import com.jee.DTO.ctf.CtfInfoResponse;
+import com.jee.entity.enums.CtfStatut;
+import com.jee.event.CtfChangedEvent;
+import com.jee.filter.Aggregate;
+import com.jee.repository.CtfRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache du catalogue des CTFs par statut, rempli par une projection unique (CtfRepository#findCatalogByStatut).
+ * Il est vidé après chaque commit qui modifie un CTF, et après chaque écriture des vues
+ * (ce qui rafraîchit aussi l'estimation des visiteurs uniques).
+ */
+@ApplicationScoped
+public class CtfCatalogCache {
+
+    private record Catalog(List<CtfInfoResponse> ctfs, Map<Long, CtfInfoResponse> byId) {
+    }
+
+    private final ConcurrentHashMap<CtfStatut, Catalog> entries = new ConcurrentHashMap<>();
+
+    // Incrémenté à chaque invalidation : un chargement commencé avant n'est pas conservé
+    private long generation;
+
+    @Inject
+    CtfRepository ctfRepository;
+    @Inject
+    CtfUniqueViewCounter ctfUniqueViewCounter;
+    @Inject
+    AggregateVersions aggregateVersions;
+
+    public List<CtfInfoResponse> get(CtfStatut statut) {
+        return catalog(statut).ctfs();
+    }
+
+    // null si le CTF n'a pas ce statut
+    public CtfInfoResponse find(CtfStatut statut, Long ctfId) {
+        return catalog(statut).byId().get(ctfId);
+    }
+
+    private Catalog catalog(CtfStatut statut) {
+        Catalog cached = entries.get(statut);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+
+        List<CtfInfoResponse> ctfs = List.copyOf(ctfRepository.findCatalogByStatut(statut));
+        Map<Long, CtfInfoResponse> byId = new HashMap<>();
+        for (CtfInfoResponse ctf : ctfs) {
+            ctf.nbVuesUniques = ctfUniqueViewCounter.estimate(ctf.id);
+            byId.put(ctf.id, ctf);
+        }
+        Catalog loaded = new Catalog(ctfs, byId);
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.putIfAbsent(statut, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // La version (et donc l'ETag) ne change qu'une fois le cache vidé : un nouvel ETag ne peut pas accompagner l'ancienne liste
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        aggregateVersions.bump(Aggregate.CTF);
+    }
+
+    void onCtfChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfChangedEvent event) {
+        invalidateAll();
+    }
+}
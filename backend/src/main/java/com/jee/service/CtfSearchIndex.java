@@ -0,0 +1,180 @@
+package com.jee.service;
+
+import com.jee.DTO.ctf.CtfInfoResponse;
+import com.jee.entity.enums.CtfStatut;
+import com.jee.event.CtfChangedEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur le titre, la description et le lieu des CTFs actifs, classé par BM25.
+ * Chargé au démarrage depuis le catalogue, puis mis à jour après chaque commit de CtfService.
+ * Les accents sont retirés (é -> e) à l'indexation comme à la recherche.
+ */
+@ApplicationScoped
+public class CtfSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Le titre compte double dans la fréquence des termes
+    private static final int TITLE_WEIGHT = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "d", "de", "des", "du", "en", "et", "l", "la", "le", "les",
+            "par", "pour", "sur", "un", "une", "dans", "the", "of", "and");
+
+    // terme -> (ctfId -> fréquence)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    // ctfId -> (terme -> fréquence), pour pouvoir désindexer un CTF
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Inject
+    CtfCatalogCache ctfCatalogCache;
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event) {
+        for (CtfInfoResponse ctf : ctfCatalogCache.get(CtfStatut.ACTIF)) {
+            index(ctf.id, ctf.titre, ctf.description, ctf.lieu);
+        }
+    }
+
+    void onCtfChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfChangedEvent event) {
+        if (event.statut == CtfStatut.ACTIF) {
+            index(event.ctfId, event.titre, event.description, event.lieu);
+        } else {
+            remove(event.ctfId);
+        }
+    }
+
+    public void index(Long ctfId, String titre, String description, String lieu) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : tokenize(titre)) {
+            terms.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(description)) {
+            terms.merge(token, 1, Integer::sum);
+        }
+        for (String token : tokenize(lieu)) {
+            terms.merge(token, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(ctfId);
+            int length = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(ctfId, term.getValue());
+                length += term.getValue();
+            }
+            documents.put(ctfId, terms);
+            lengths.put(ctfId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long ctfId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ctfId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long ctfId) {
+        Map<String, Integer> terms = documents.remove(ctfId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            docs.remove(ctfId);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths.remove(ctfId);
+    }
+
+    // Identifiants des CTFs les plus pertinents, du meilleur au moins bon
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            for (String term : queryTerms) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                docs.forEach((ctfId, frequency) -> {
+                    double norm = K1 * (1 - B + B * lengths.get(ctfId) / averageLength);
+                    scores.merge(ctfId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Top-k avec un tas min de taille limit
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(0, top.poll().getKey());
+        }
+        return ids;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)).replaceAll("")
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
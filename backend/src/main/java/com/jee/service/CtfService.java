@@ -3,18 +3,24 @@ package com.jee.service;
 import com.jee.DTO.ctf.CtfCreateRequest;
 import com.jee.DTO.ctf.CtfInfoResponse;
 import com.jee.DTO.ctf.UpdateCtfRequest;
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.DTO.participation.ParticipationInfoResponse;
 import com.jee.entity.*;
 import com.jee.entity.enums.CtfStatut;
 import com.jee.entity.enums.ParticipationFilter;
+import com.jee.event.CtfChangedEvent;
+import com.jee.event.CtfJoinedEvent;
+import com.jee.event.CtfLeftEvent;
 import com.jee.exceptionHandler.ApiException;
 import com.jee.repository.*;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
 
 @ApplicationScoped
 public class CtfService {
@@ -29,6 +35,22 @@ public class CtfService {
     ParticipationRepository participationRepository;
     @Inject
     EquipeRepository equipeRepository;
+    @Inject
+    CtfViewCounter ctfViewCounter;
+    @Inject
+    CtfUniqueViewCounter ctfUniqueViewCounter;
+    @Inject
+    CtfTrending ctfTrending;
+    @Inject
+    Event<CtfJoinedEvent> ctfJoinedEvent;
+    @Inject
+    Event<CtfLeftEvent> ctfLeftEvent;
+    @Inject
+    CtfCatalogCache ctfCatalogCache;
+    @Inject
+    CtfSearchIndex ctfSearchIndex;
+    @Inject
+    Event<CtfChangedEvent> ctfChangedEvent;
 
     @Transactional
     public void createCtf(String organisateurEmail, CtfCreateRequest request) {
@@ -49,47 +71,58 @@ public class CtfService {
         ctf.setStatut(CtfStatut.EN_ATTENTE);
 
         ctfRepository.persist(ctf);
-
+        ctfChangedEvent.fire(new CtfChangedEvent(ctf));
 
     }
 
-    @Transactional
-    public CtfInfoResponse getCtfById(Long id) {
+    // Lecture pure : la vue est comptée en mémoire et écrite plus tard par CtfViewCounter
+    public CtfInfoResponse getCtfById(Long id, String subject, String remoteAddress) {
         CTF ctf = ctfRepository.findById(id);
         if (ctf == null) {
             throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable avec l'id : " + id);
         }
 
-        ctf.setNbVues(ctf.getNbVues() + 1);
+        ctfViewCounter.recordView(id);
+        ctfUniqueViewCounter.recordView(id, subject, remoteAddress);
+        ctfTrending.recordView(id);
+
+        return toInfoResponse(ctf);
+    }
 
+    private CtfInfoResponse toInfoResponse(CTF ctf) {
         CtfInfoResponse response = new CtfInfoResponse();
         response.id = ctf.getId();
         response.titre = ctf.getTitre();
         response.description = ctf.getDescription();
         response.lieu = ctf.getLieu();
-        response.nbVues = ctf.getNbVues();
+        response.nbVues = ctf.getNbVues() + ctfViewCounter.pendingViews(ctf.getId());
+        response.nbVuesUniques = ctfUniqueViewCounter.estimate(ctf.getId());
         response.statut = ctf.getStatut().name();
         response.organisateurPseudo = ctf.getContact().getPseudo();
-
         return response;
+    }
 
+    // Le catalogue est déjà trié par id en mémoire : la page est découpée sans requête
+    public KeysetPage<CtfInfoResponse> getAllCtfsByStatut(CtfStatut statut, PageRequest page) {
+        return Keyset.slice(ctfCatalogCache.get(statut), ctf -> ctf.id, Long.class, page);
     }
 
-    public List<CtfInfoResponse> getAllCtfsByStatut(CtfStatut statut) {
+    public List<CtfInfoResponse> getTrendingCtfs(Integer limit) {
+        int maxResults = limit == null ? 10 : Math.max(1, Math.min(limit, CtfTrending.MAX_RESULTS));
+        return ctfTrending.top(maxResults);
+    }
 
-        List<CTF> ctfs = ctfRepository.findAllByStatut(statut);
+    // Recherche plein texte sur les CTFs actifs, servie entièrement depuis la mémoire
+    public List<CtfInfoResponse> searchCtfs(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new ApiException(400, "EMPTY_QUERY", "Le paramètre q est obligatoire.");
+        }
+        int maxResults = limit == null ? 20 : Math.max(1, Math.min(limit, 100));
 
-        return ctfs.stream().map(ctf -> {
-            CtfInfoResponse response = new CtfInfoResponse();
-            response.id = ctf.getId();
-            response.titre = ctf.getTitre();
-            response.description = ctf.getDescription();
-            response.lieu = ctf.getLieu();
-            response.nbVues = ctf.getNbVues();
-            response.statut = ctf.getStatut().name();
-            response.organisateurPseudo = ctf.getContact().getPseudo();
-            return response;
-        }).toList();
+        return ctfSearchIndex.search(query, maxResults).stream()
+                .map(id -> ctfCatalogCache.find(CtfStatut.ACTIF, id))
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Transactional
@@ -110,6 +143,7 @@ public class CtfService {
         } else {
             ctf.setStatut(CtfStatut.INACTIF);
         }
+        ctfChangedEvent.fire(new CtfChangedEvent(ctf));
 
     }
 
@@ -129,6 +163,7 @@ public class CtfService {
         }
 
         ctf.setStatut(CtfStatut.INACTIF);
+        ctfChangedEvent.fire(new CtfChangedEvent(ctf));
     }
 
     @Transactional
@@ -177,8 +212,9 @@ public class CtfService {
         if (!isAdmin) {
             ctf.setStatut(CtfStatut.EN_ATTENTE);
         }
+        ctfChangedEvent.fire(new CtfChangedEvent(ctf));
 
-        return getCtfById(id);
+        return toInfoResponse(ctf);
     }
 
     @Transactional
@@ -212,6 +248,7 @@ public class CtfService {
         participationSoloCtf.join();
 
         participationRepository.persist(participationSoloCtf);
+        ctfJoinedEvent.fire(new CtfJoinedEvent(ctfId, participantEmail, participant.getPseudo()));
 
     }
 
@@ -245,10 +282,12 @@ public class CtfService {
         }
 
         participationSoloCtf.setLeftAt(Instant.now());
+        ctfLeftEvent.fire(new CtfLeftEvent(ctfId, participantEmail));
     }
 
-    public List<ParticipationInfoResponse> getParticipationsByFilter(Long ctfId, ParticipationFilter filter,
-                                                                     String requesterEmail, boolean isAdmin) {
+    public KeysetPage<ParticipationInfoResponse> getParticipationsByFilter(Long ctfId, ParticipationFilter filter,
+                                                                           PageRequest page,
+                                                                           String requesterEmail, boolean isAdmin) {
         CTF ctf = ctfRepository.findById(ctfId);
         if (ctf == null) {
             throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable d'id : " + ctfId);
@@ -260,13 +299,10 @@ public class CtfService {
             }
         }
 
-        List<ParticipationSoloCtf> participations = switch (filter) {
-            case ACTIVE -> participationRepository.findActiveParticipationsByCtfId(ctfId);
-            case INACTIVE -> participationRepository.findInactiveParticipationsByCtfId(ctfId);
-            case ALL -> participationRepository.findAllParticipationsByCtfId(ctfId);
-        };
+        KeysetPage<ParticipationSoloCtf> participations =
+                participationRepository.findParticipationsPageByCtfId(ctfId, filter, page);
 
-        return participations.stream().map(participation -> {
+        return participations.map(participation -> {
             ParticipationInfoResponse response = new ParticipationInfoResponse();
             response.ctfId = participation.getCtf().getId();
             response.ctfTitre = participation.getCtf().getTitre();
@@ -277,7 +313,7 @@ public class CtfService {
             response.leftAt = participation.getLeftAt();
             response.completedAt = participation.getCompletedAt();
             return response;
-        }).toList();
+        });
     }
 
 }
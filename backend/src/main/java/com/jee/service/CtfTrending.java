@@ -0,0 +1,141 @@
+package com.jee.service;
+
+import com.jee.DTO.ctf.CtfInfoResponse;
+import com.jee.entity.enums.CtfStatut;
+import com.jee.event.CtfJoinedEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Classement des CTFs actifs "en tendance" : activité (vues et inscriptions) avec décroissance exponentielle.
+ * Chaque CTF a un anneau de tranches de temps ; une tranche tient dans un long (numéro de tranche | compteur)
+ * et est mise à jour par CAS, sans verrou. Le classement est recalculé à intervalle fixe dans une liste
+ * immuable : la lecture ne fait ni calcul ni requête.
+ */
+@ApplicationScoped
+public class CtfTrending {
+
+    public static final int MAX_RESULTS = 50;
+
+    private static final int BUCKETS = 64;
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long VIEW_WEIGHT = 1;
+    private static final long JOIN_WEIGHT = 5;
+
+    private final ConcurrentHashMap<Long, AtomicLongArray> activity = new ConcurrentHashMap<>();
+
+    private volatile List<CtfInfoResponse> ranking = List.of();
+
+    @Inject
+    CtfCatalogCache ctfCatalogCache;
+
+    @ConfigProperty(name = "ctf.trending.bucket", defaultValue = "1m")
+    Duration bucket;
+
+    @ConfigProperty(name = "ctf.trending.half-life", defaultValue = "30m")
+    Duration halfLife;
+
+    public void recordView(Long ctfId) {
+        record(ctfId, VIEW_WEIGHT);
+    }
+
+    void onJoin(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfJoinedEvent event) {
+        record(event.ctfId, JOIN_WEIGHT);
+    }
+
+    public List<CtfInfoResponse> top(int limit) {
+        List<CtfInfoResponse> current = ranking;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    private void record(Long ctfId, long weight) {
+        AtomicLongArray ring = activity.computeIfAbsent(ctfId, id -> new AtomicLongArray(BUCKETS));
+        long epoch = currentEpoch();
+        int index = (int) (epoch % BUCKETS);
+        while (true) {
+            long slot = ring.get(index);
+            long slotEpoch = slot >>> COUNT_BITS;
+            long next;
+            if (slotEpoch == epoch) {
+                next = (slotEpoch << COUNT_BITS) | Math.min(COUNT_MASK, (slot & COUNT_MASK) + weight);
+            } else if (slotEpoch < epoch) {
+                // Tranche d'un tour précédent : on la recycle
+                next = (epoch << COUNT_BITS) | weight;
+            } else {
+                return;
+            }
+            if (slot == next || ring.compareAndSet(index, slot, next)) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(every = "${ctf.trending.tick:30s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void recompute() {
+        long epoch = currentEpoch();
+        double decayPerBucket = Math.pow(0.5, (double) bucket.toMillis() / halfLife.toMillis());
+
+        record Scored(CtfInfoResponse ctf, double score) {
+        }
+        PriorityQueue<Scored> heap = new PriorityQueue<>(Comparator.comparingDouble(Scored::score));
+        Set<Long> actifs = new HashSet<>();
+
+        for (CtfInfoResponse ctf : ctfCatalogCache.get(CtfStatut.ACTIF)) {
+            actifs.add(ctf.id);
+            AtomicLongArray ring = activity.get(ctf.id);
+            if (ring == null) {
+                continue;
+            }
+            double score = score(ring, epoch, decayPerBucket);
+            if (score <= 0) {
+                continue;
+            }
+            if (heap.size() < MAX_RESULTS) {
+                heap.add(new Scored(ctf, score));
+            } else if (heap.peek().score() < score) {
+                heap.poll();
+                heap.add(new Scored(ctf, score));
+            }
+        }
+
+        // Les CTFs qui ne sont plus actifs ne sont plus suivis
+        activity.keySet().retainAll(actifs);
+
+        List<CtfInfoResponse> sorted = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            sorted.add(heap.poll().ctf());
+        }
+        ranking = List.copyOf(sorted.reversed());
+    }
+
+    private static double score(AtomicLongArray ring, long epoch, double decayPerBucket) {
+        double score = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long slot = ring.get(i);
+            long age = epoch - (slot >>> COUNT_BITS);
+            if (age >= 0 && age < BUCKETS) {
+                score += (slot & COUNT_MASK) * Math.pow(decayPerBucket, age);
+            }
+        }
+        return score;
+    }
+
+    private long currentEpoch() {
+        return System.currentTimeMillis() / bucket.toMillis();
+    }
+}
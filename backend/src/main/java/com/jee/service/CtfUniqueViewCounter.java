@@ -0,0 +1,101 @@
+package com.jee.service;
+
+import com.jee.entity.CtfUniqueViews;
+import com.jee.repository.CtfUniqueViewsRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Visiteurs uniques par CTF : un sketch HyperLogLog de taille fixe par CTF, quel que soit le trafic.
+ * Le visiteur est identifié par le sujet du JWT, ou par un hash salé de son IP s'il est anonyme ;
+ * ni l'un ni l'autre n'est conservé, seul le sketch l'est.
+ * Les sketches modifiés sont fusionnés avec ceux de la base et réécrits périodiquement.
+ */
+@ApplicationScoped
+public class CtfUniqueViewCounter {
+
+    private static final Logger LOG = Logger.getLogger(CtfUniqueViewCounter.class);
+
+    private final ConcurrentHashMap<Long, HyperLogLog> sketches = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    CtfUniqueViewsRepository uniqueViewsRepository;
+
+    @ConfigProperty(name = "ctf.views.unique.ip-salt", defaultValue = "ctf-rootyou")
+    String ipSalt;
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event) {
+        for (CtfUniqueViews views : uniqueViewsRepository.findAll()) {
+            sketches.put(views.getCtfId(), HyperLogLog.fromBytes(views.getSketch()));
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        persist();
+    }
+
+    public void recordView(Long ctfId, String subject, String remoteAddress) {
+        String visitor = subject != null ? "sub:" + subject : "ip:" + ipSalt + ":" + remoteAddress;
+        if (sketches.computeIfAbsent(ctfId, id -> new HyperLogLog()).offer(HyperLogLog.hash(visitor))) {
+            dirty.add(ctfId);
+        }
+    }
+
+    public long estimate(Long ctfId) {
+        HyperLogLog sketch = sketches.get(ctfId);
+        return sketch == null ? 0 : sketch.estimate();
+    }
+
+    @Scheduled(every = "${ctf.views.unique.persist-interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledPersist() {
+        persist();
+    }
+
+    public void persist() {
+        List<Long> ctfIds = new ArrayList<>();
+        for (Long ctfId : dirty) {
+            if (dirty.remove(ctfId)) {
+                ctfIds.add(ctfId);
+            }
+        }
+        if (ctfIds.isEmpty()) {
+            return;
+        }
+        try {
+            writeSketches(ctfIds);
+        } catch (RuntimeException e) {
+            dirty.addAll(ctfIds);
+            LOG.warnf(e, "Echec de l'écriture de %d sketches de visiteurs uniques, nouvel essai au prochain passage", ctfIds.size());
+        }
+    }
+
+    // Fusion avec la version en base : une autre instance a pu y écrire entre-temps
+    @Transactional
+    void writeSketches(List<Long> ctfIds) {
+        for (Long ctfId : ctfIds) {
+            HyperLogLog sketch = sketches.get(ctfId);
+            CtfUniqueViews stored = uniqueViewsRepository.findByCtfId(ctfId);
+            if (stored == null) {
+                uniqueViewsRepository.persist(new CtfUniqueViews(ctfId, sketch.toBytes()));
+            } else {
+                sketch.merge(stored.getSketch());
+                stored.setSketch(sketch.toBytes());
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.jee.service;
+
+import com.jee.repository.CtfRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur de vues en write-behind : les vues sont accumulées en mémoire (LongAdder, donc stripé
+ * entre les threads) puis écrites périodiquement dans ctfs.nbVues en un seul UPDATE.
+ * La consultation d'un CTF ne prend donc plus aucun verrou sur la ligne.
+ */
+@ApplicationScoped
+public class CtfViewCounter {
+
+    private static final Logger LOG = Logger.getLogger(CtfViewCounter.class);
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Inject
+    CtfRepository ctfRepository;
+    @Inject
+    CtfCatalogCache ctfCatalogCache;
+
+    public void recordView(Long ctfId) {
+        pending.computeIfAbsent(ctfId, id -> new LongAdder()).increment();
+    }
+
+    // Vues enregistrées mais pas encore écrites en base
+    public int pendingViews(Long ctfId) {
+        LongAdder adder = pending.get(ctfId);
+        return adder == null ? 0 : (int) adder.sum();
+    }
+
+    @Scheduled(every = "${ctf.views.flush-interval:10s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        flush();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    public void flush() {
+        Map<Long, Integer> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            writeDeltas(deltas);
+            ctfCatalogCache.invalidateAll();
+        } catch (RuntimeException e) {
+            // On remet les vues dans l'accumulateur pour le prochain passage
+            deltas.forEach((id, delta) -> pending.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+            LOG.warnf(e, "Echec de l'écriture de %d compteurs de vues, nouvel essai au prochain passage", deltas.size());
+        }
+    }
+
+    @Transactional
+    void writeDeltas(Map<Long, Integer> deltas) {
+        ctfRepository.addViews(deltas);
+    }
+
+    private Map<Long, Integer> drain() {
+        Map<Long, Integer> deltas = new HashMap<>();
+        pending.forEach((id, adder) -> {
+            long views = adder.sum();
+            if (views > 0) {
+                // add(-views) plutôt que reset() : les incréments concurrents ne sont pas perdus
+                adder.add(-views);
+                deltas.put(id, (int) views);
+            }
+        });
+        return deltas;
+    }
+}
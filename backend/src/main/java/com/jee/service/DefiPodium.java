@@ -0,0 +1,68 @@
+package com.jee.service;
+
+import com.jee.DTO.defi.PodiumEntryResponse;
+import com.jee.event.DefiSolvedEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Les trois premiers résolveurs de chaque défi. L'ordre vient du compteur atomique de DefiScoring,
+ * attribué au moment où le flag est accepté : aucune ligne n'est verrouillée en base pour le départager.
+ */
+@ApplicationScoped
+public class DefiPodium {
+
+    private static final Logger LOG = Logger.getLogger(DefiPodium.class);
+
+    public static final int SIZE = 3;
+
+    private final ConcurrentHashMap<Long, AtomicReferenceArray<PodiumEntryResponse>> podiums = new ConcurrentHashMap<>();
+
+    @Inject
+    ScoreboardSnapshot scoreboardSnapshot;
+
+    void onStart(@Observes StartupEvent event) {
+        for (SolveFact solve : scoreboardSnapshot.solves()) {
+            if (solve.ordre() >= 1 && solve.ordre() <= SIZE) {
+                place(solve.defiId(), solve.ordre(), solve.pseudo(), solve.solvedAt());
+            }
+        }
+    }
+
+    void onSolve(@Observes DefiSolvedEvent event) {
+        if (event.ordre <= SIZE) {
+            place(event.defiId, event.ordre, event.participantPseudo, event.solvedAt);
+            if (event.ordre == 1) {
+                LOG.infof("Premier sang sur le défi %d : %s", event.defiId, event.participantPseudo);
+            }
+        }
+    }
+
+    public List<PodiumEntryResponse> podium(Long defiId) {
+        AtomicReferenceArray<PodiumEntryResponse> podium = podiums.get(defiId);
+        List<PodiumEntryResponse> entries = new ArrayList<>(SIZE);
+        if (podium != null) {
+            for (int i = 0; i < SIZE; i++) {
+                PodiumEntryResponse entry = podium.get(i);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void place(Long defiId, int ordre, String pseudo, Instant solvedAt) {
+        podiums.computeIfAbsent(defiId, id -> new AtomicReferenceArray<>(SIZE))
+                .set(ordre - 1, new PodiumEntryResponse(ordre, pseudo, solvedAt));
+    }
+}
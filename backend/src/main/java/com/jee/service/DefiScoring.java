@@ -0,0 +1,140 @@
+package com.jee.service;
+
+import com.jee.entity.Defi;
+import com.jee.event.DefiChangedEvent;
+import com.jee.filter.Aggregate;
+import com.jee.repository.DefiRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Valeur des défis à points dégressifs (formule de CTFd) : la valeur baisse avec le nombre de résolutions
+ * jusqu'à pointsMin, et chaque résolveur garde la valeur courante du défi.
+ * Deux compteurs atomiques par défi : les résolutions acceptées (en mémoire) et celles déjà écrites en base,
+ * ce qui permet à SolveRecorder de calculer l'écart à reporter sur les anciens résolveurs sans rien recalculer.
+ */
+@ApplicationScoped
+public class DefiScoring {
+
+    record Params(int points, int pointsMin, int decroissance) {
+    }
+
+    private volatile Map<Long, Params> params = Map.of();
+    private final ConcurrentHashMap<Long, AtomicInteger> solves = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> persisted = new ConcurrentHashMap<>();
+
+    @Inject
+    DefiRepository defiRepository;
+    @Inject
+    ScoreboardSnapshot scoreboardSnapshot;
+    @Inject
+    AggregateVersions aggregateVersions;
+
+    // Après ScoreboardSnapshot, avant les chargements qui lisent la valeur des défis
+    @ActivateRequestContext
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 200) StartupEvent event) {
+        Map<Long, Params> loaded = new HashMap<>();
+        for (Defi defi : defiRepository.findAll()) {
+            loaded.put(defi.getId(), toParams(defi.getPoints(), defi.getPointsMin(), defi.getDecroissance()));
+        }
+        params = Map.copyOf(loaded);
+
+        for (SolveFact solve : scoreboardSnapshot.solves()) {
+            counter(persisted, solve.defiId()).incrementAndGet();
+            // Reprise de la séquence au plus grand ordre déjà attribué
+            counter(solves, solve.defiId()).accumulateAndGet(solve.ordre(), Math::max);
+        }
+        persisted.forEach((defiId, count) -> counter(solves, defiId).accumulateAndGet(count.get(), Math::max));
+        // Résolutions du journal qui n'ont pas atteint la base : remises en file par JournalReplay
+        for (SolveFact missing : scoreboardSnapshot.bootMissing()) {
+            counter(persisted, missing.defiId()).decrementAndGet();
+        }
+    }
+
+    synchronized void onDefiChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) DefiChangedEvent event) {
+        Map<Long, Params> updated = new HashMap<>(params);
+        updated.put(event.defiId, toParams(event.points, event.pointsMin, event.decroissance));
+        params = Map.copyOf(updated);
+    }
+
+    // Nombre de résolutions après celle-ci, c'est-à-dire son ordre dans le défi
+    int recordSolve(Long defiId) {
+        return bumpVersionIfValueChanged(defiId, counter(solves, defiId).incrementAndGet());
+    }
+
+    // Résolution rejouée depuis le journal avec son ordre d'origine
+    int restoreSolve(Long defiId, int ordre) {
+        counter(solves, defiId).accumulateAndGet(ordre, Math::max);
+        return bumpVersionIfValueChanged(defiId, ordre);
+    }
+
+    private int bumpVersionIfValueChanged(Long defiId, int count) {
+        Params defi = params.get(defiId);
+        if (defi != null && value(defi, count) != value(defi, count - 1)) {
+            // La valeur affichée dans la liste des défis a changé
+            aggregateVersions.bump(Aggregate.DEFI);
+        }
+        return count;
+    }
+
+    boolean exists(Long defiId) {
+        return params.containsKey(defiId);
+    }
+
+    public int currentValue(Long defiId) {
+        return value(defiId, counter(solves, defiId).get());
+    }
+
+    // Valeur du défi une fois résolu solveCount fois
+    public int value(Long defiId, int solveCount) {
+        Params defi = params.get(defiId);
+        return defi == null ? 0 : value(defi, solveCount);
+    }
+
+    int persistedSolves(Long defiId) {
+        return counter(persisted, defiId).get();
+    }
+
+    void markPersisted(Long defiId, int count) {
+        counter(persisted, defiId).addAndGet(count);
+    }
+
+    // Formule de CTFd : parabole de points (premier résolveur) à pointsMin (atteint à decroissance résolutions)
+    static int value(Params defi, int solveCount) {
+        if (defi.decroissance() <= 0 || solveCount <= 1) {
+            return defi.points();
+        }
+        long previous = solveCount - 1;
+        if (previous >= defi.decroissance()) {
+            return defi.pointsMin();
+        }
+        // ceil(points - range * previous² / decroissance²) en entiers : en double, l'arrondi donnait parfois pointsMin + 1
+        long range = defi.points() - defi.pointsMin();
+        long squared = previous * previous;
+        long scale = (long) defi.decroissance() * defi.decroissance();
+        long drop = squared <= Long.MAX_VALUE / Math.max(1, Math.abs(range))
+                ? range * squared / scale
+                : BigInteger.valueOf(range).multiply(BigInteger.valueOf(squared)).divide(BigInteger.valueOf(scale)).longValue();
+        return (int) Math.max(defi.pointsMin(), defi.points() - drop);
+    }
+
+    private static Params toParams(int points, Integer pointsMin, int decroissance) {
+        return pointsMin == null ? new Params(points, points, 0) : new Params(points, pointsMin, decroissance);
+    }
+
+    private static AtomicInteger counter(ConcurrentHashMap<Long, AtomicInteger> counters, Long defiId) {
+        return counters.computeIfAbsent(defiId, id -> new AtomicInteger());
+    }
+}
@@ -1,29 +1,68 @@
 package com.jee.service;
 
+import com.jee.DTO.defi.DefiCreateRequest;
 import com.jee.DTO.defi.DefiDetailsResponse;
+import com.jee.DTO.pagination.PageRequest;
+import com.jee.entity.CTF;
 import com.jee.entity.Defi;
+import com.jee.event.DefiChangedEvent;
 import com.jee.exceptionHandler.ApiException;
+import com.jee.repository.CtfRepository;
 import com.jee.repository.DefiRepository;
+import com.jee.repository.KeysetPage;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
-import java.util.List;
-
 @ApplicationScoped
 public class DefiService {
 
     @Inject
     DefiRepository defiRepository;
+    @Inject
+    CtfRepository ctfRepository;
+    @Inject
+    DefiScoring defiScoring;
+    @Inject
+    Event<DefiChangedEvent> defiChangedEvent;
 
     @Transactional
-    public void createDefi(String titre, int points) {
-        Defi defi = defiRepository.findByTitle(titre);
+    public void createDefi(DefiCreateRequest request) {
+        if (request.flag == null || request.flag.isBlank()) {
+            throw new ApiException(400, "EMPTY_FLAG", "Le flag est obligatoire.");
+        }
+        if (request.flag.length() > FlagService.MAX_FLAG_LENGTH) {
+            throw new ApiException(400, "FLAG_TOO_LONG", "Le flag ne peut pas dépasser " + FlagService.MAX_FLAG_LENGTH + " caractères.");
+        }
+
+        Defi defi = defiRepository.findByTitle(request.titre);
         if (defi != null) {
             throw new ApiException(409, "DEFI_ALREADY_EXISTS", "Un défi avec ce titre existe déjà");
         }
-        defi = new Defi(titre, points);
+        defi = new Defi(request.titre, request.points);
+
+        if (request.pointsMin != null || request.decroissance != null) {
+            int decroissance = request.decroissance == null ? 0 : request.decroissance;
+            if (request.pointsMin == null || request.pointsMin < 0 || request.pointsMin > request.points || decroissance < 1) {
+                throw new ApiException(400, "INVALID_DECAY", "Points dégressifs : 0 <= pointsMin <= points et decroissance >= 1.");
+            }
+            defi.setDecay(request.pointsMin, decroissance);
+        }
+
+        if (request.ctfId != null) {
+            CTF ctf = ctfRepository.findById(request.ctfId);
+            if (ctf == null) {
+                throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable avec l'id : " + request.ctfId);
+            }
+            defi.setCtf(ctf);
+        }
+
+        byte[] salt = FlagHashes.newSalt();
+        defi.setFlag(FlagHashes.encode(salt), FlagHashes.encode(FlagHashes.hash(salt, request.flag.strip())));
+
         defiRepository.persist(defi);
+        defiChangedEvent.fire(new DefiChangedEvent(defi));
     }
 
     public DefiDetailsResponse getDefiDetails(Long defiId) {
@@ -31,24 +70,23 @@ public class DefiService {
         if (defi == null) {
             throw new ApiException(404, "DEFI_NOT_FOUND", "Défi non trouvé");
         }
+        return toDetailsResponse(defi);
+    }
+
+    public KeysetPage<DefiDetailsResponse> getAllDefis(PageRequest page) {
+        KeysetPage<Defi> defis = defiRepository.findDefisPage(page);
+        return defis.map(this::toDetailsResponse);
+    }
+
+    private DefiDetailsResponse toDetailsResponse(Defi defi) {
         DefiDetailsResponse response = new DefiDetailsResponse();
         response.id = defi.getId();
         response.titre = defi.getTitre();
         response.points = defi.getPoints();
+        response.pointsMin = defi.getPointsMin();
+        response.decroissance = defi.getDecroissance();
+        response.pointsActuels = defiScoring.currentValue(defi.getId());
+        response.ctfId = defi.getCtf() == null ? null : defi.getCtf().getId();
         return response;
     }
-
-    public List<DefiDetailsResponse> getAllDefis() {
-        List<Defi> defis = defiRepository.findAllDefis();
-        return defis.stream().map(defi -> {
-            DefiDetailsResponse response = new DefiDetailsResponse();
-            response.id = defi.getId();
-            response.titre = defi.getTitre();
-            response.points = defi.getPoints();
-            return response;
-        }).toList();
-    }
-
-
-
 }
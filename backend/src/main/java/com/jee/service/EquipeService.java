@@ -3,16 +3,20 @@ package com.jee.service;
 import com.jee.DTO.equipe.EquipeCandidatureDetails;
 import com.jee.DTO.equipe.EquipeDetailsResponse;
 import com.jee.DTO.equipe.EquipeListResponse;
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.DTO.user.UserPublicDetails;
 import com.jee.entity.CandidatureMembre;
 import com.jee.entity.Equipe;
 import com.jee.entity.Participant;
 import com.jee.entity.enums.StatutCandidature;
+import com.jee.event.EquipeChangedEvent;
 import com.jee.exceptionHandler.ApiException;
 import com.jee.repository.CandidatureRepository;
 import com.jee.repository.EquipeRepository;
+import com.jee.repository.KeysetPage;
 import com.jee.repository.UserRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
@@ -28,6 +32,8 @@ public class EquipeService {
     UserRepository userRepository;
     @Inject
     CandidatureRepository candidatureRepository;
+    @Inject
+    Event<EquipeChangedEvent> equipeChangedEvent;
 
     @Transactional
     public void createEquipe(String nomEquipe, String emailChefEquipe) {
@@ -55,6 +61,7 @@ public class EquipeService {
 
         CandidatureMembre chefCandidature = CandidatureMembre.createChefEquipe(equipe, chefEquipe);
         candidatureRepository.persist(chefCandidature);
+        equipeChangedEvent.fire(new EquipeChangedEvent(equipe.getId()));
 
     }
 
@@ -112,6 +119,7 @@ public class EquipeService {
 
         candidature.setStatut(StatutCandidature.QUITTE);
         candidature.setEndedAt(Instant.now());
+        equipeChangedEvent.fire(new EquipeChangedEvent(equipeId));
     }
 
     @Transactional
@@ -141,6 +149,7 @@ public class EquipeService {
         candidature.setStatut(StatutCandidature.EXCLU);
         candidature.setEndedAt(Instant.now());
         candidature.setEndedBy(kickedBy);
+        equipeChangedEvent.fire(new EquipeChangedEvent(equipeId));
     }
 
     @Transactional
@@ -171,6 +180,9 @@ public class EquipeService {
         }
         candidature.setDecidedBy(decidedBy);
         candidature.setDecidedAt(Instant.now());
+        if (accept) {
+            equipeChangedEvent.fire(new EquipeChangedEvent(candidature.getEquipe().getId()));
+        }
     }
 
     @Transactional
@@ -195,19 +207,20 @@ public class EquipeService {
         }
 
         equipe.setChef_equipe(newChef);
+        equipeChangedEvent.fire(new EquipeChangedEvent(equipeId));
     }
 
     @Transactional
-    public List<EquipeListResponse> getAllEquipes() {
-        List<Equipe> equipes = equipeRepository.findAllEquipes();
-        return equipes.stream().map(equipe -> {
+    public KeysetPage<EquipeListResponse> getAllEquipes(PageRequest page) {
+        KeysetPage<Equipe> equipes = equipeRepository.findEquipesPage(page);
+        return equipes.map(equipe -> {
             EquipeListResponse response = new EquipeListResponse();
             response.equipeId = equipe.getId();
             response.nomEquipe = equipe.getNom();
             response.chefEquipeEmail = equipe.getChef_equipe().getEmail();
             response.nombreMembres = equipeRepository.countActiveMembresInEquipe(equipe.getId());
             return response;
-        }).toList();
+        });
     }
 
     @Transactional
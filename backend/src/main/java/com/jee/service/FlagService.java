@@ -0,0 +1,212 @@
+package com.jee.service;
+
+import com.jee.DTO.defi.FlagSubmissionResponse;
+import com.jee.entity.CTF;
+import com.jee.entity.Defi;
+import com.jee.entity.enums.CtfStatut;
+import com.jee.event.CtfChangedEvent;
+import com.jee.event.DefiChangedEvent;
+import com.jee.event.DefiSolvedEvent;
+import com.jee.exceptionHandler.ApiException;
+import com.jee.repository.CtfRepository;
+import com.jee.repository.DefiRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Vérification des flags sans accès à la base : les hashes des défis des CTF actifs sont dans une map
+ * immuable, remplacée en entier (copy-on-write) à chaque modification d'un défi ou d'un CTF, et les résolutions déjà
+ * acquises sont gardées en mémoire pour refuser les doublons. Une résolution acceptée est confiée
+ * à SolveRecorder, qui l'écrit plus tard par lots, et annoncée tout de suite par un DefiSolvedEvent.
+ */
+@ApplicationScoped
+public class FlagService {
+
+    public static final int MAX_FLAG_LENGTH = 256;
+
+    private record DefiFlag(Long ctfId, byte[] salt, byte[] hash) {
+    }
+
+    private volatile Map<Long, DefiFlag> flags = Map.of();
+    private volatile Set<Long> activeCtfs = Set.of();
+
+    // defiId -> emails des participants qui l'ont résolu
+    private final ConcurrentHashMap<Long, Set<String>> solvers = new ConcurrentHashMap<>();
+
+    @Inject
+    DefiRepository defiRepository;
+    @Inject
+    CtfRepository ctfRepository;
+    @Inject
+    ScoreboardService scoreboardService;
+    @Inject
+    SolveRecorder solveRecorder;
+    @Inject
+    SubmissionJournal submissionJournal;
+    @Inject
+    DefiScoring defiScoring;
+    @Inject
+    ScoreboardSnapshot scoreboardSnapshot;
+    @Inject
+    Event<DefiSolvedEvent> defiSolvedEvent;
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event) {
+        Set<Long> active = new HashSet<>();
+        for (CTF ctf : ctfRepository.findAllByStatut(CtfStatut.ACTIF)) {
+            active.add(ctf.getId());
+        }
+        Map<Long, DefiFlag> loaded = new HashMap<>();
+        for (Defi defi : defiRepository.findAllWithFlagByCtfStatut(CtfStatut.ACTIF)) {
+            loaded.put(defi.getId(), toFlag(defi.getCtf().getId(), defi.getFlagSalt(), defi.getFlagHash()));
+        }
+        activeCtfs = Set.copyOf(active);
+        flags = Map.copyOf(loaded);
+
+        for (SolveFact solve : scoreboardSnapshot.solves()) {
+            solversOf(solve.defiId()).add(solve.email());
+        }
+    }
+
+    synchronized void onDefiChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) DefiChangedEvent event) {
+        Map<Long, DefiFlag> updated = new HashMap<>(flags);
+        if (event.flagHash == null || !activeCtfs.contains(event.ctfId)) {
+            updated.remove(event.defiId);
+        } else {
+            updated.put(event.defiId, toFlag(event.ctfId, event.flagSalt, event.flagHash));
+        }
+        flags = Map.copyOf(updated);
+    }
+
+    // Seuls les défis d'un CTF actif acceptent des flags
+    @ActivateRequestContext
+    synchronized void onCtfChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfChangedEvent event) {
+        boolean active = event.statut == CtfStatut.ACTIF;
+        if (active == activeCtfs.contains(event.ctfId)) {
+            return;
+        }
+        Set<Long> ctfs = new HashSet<>(activeCtfs);
+        Map<Long, DefiFlag> updated = new HashMap<>(flags);
+        if (active) {
+            ctfs.add(event.ctfId);
+            for (Defi defi : defiRepository.findAllWithFlagByCtf(event.ctfId)) {
+                updated.put(defi.getId(), toFlag(event.ctfId, defi.getFlagSalt(), defi.getFlagHash()));
+            }
+        } else {
+            ctfs.remove(event.ctfId);
+            updated.values().removeIf(flag -> event.ctfId.equals(flag.ctfId()));
+        }
+        activeCtfs = Set.copyOf(ctfs);
+        flags = Map.copyOf(updated);
+    }
+
+    public FlagSubmissionResponse submit(Long defiId, String participantEmail, String participantPseudo, String flag) {
+        if (flag == null || flag.isBlank()) {
+            throw new ApiException(400, "EMPTY_FLAG", "Le flag est obligatoire.");
+        }
+        if (flag.length() > MAX_FLAG_LENGTH) {
+            throw new ApiException(400, "FLAG_TOO_LONG", "Le flag ne peut pas dépasser " + MAX_FLAG_LENGTH + " caractères.");
+        }
+
+        DefiFlag expected = flags.get(defiId);
+        if (expected == null) {
+            throw new ApiException(404, "DEFI_NOT_FOUND", "Défi non trouvé");
+        }
+
+        // Participation en cours au CTF du défi (le classement en mémoire suit les inscriptions et les départs)
+        if (!scoreboardService.isMember(expected.ctfId(), participantEmail)) {
+            throw new ApiException(403, "NOT_PARTICIPANT", "Vous ne participez pas au CTF de ce défi.");
+        }
+
+        if (solversOf(defiId).contains(participantEmail)) {
+            throw new ApiException(409, "DEFI_ALREADY_SOLVED", "Vous avez déjà résolu ce défi.");
+        }
+
+        // Comparaison en temps constant
+        byte[] submitted = FlagHashes.hash(expected.salt(), flag.strip());
+        boolean correct = MessageDigest.isEqual(submitted, expected.hash());
+        submissionJournal.submission(defiId, expected.ctfId(), participantEmail, correct);
+        if (!correct) {
+            return new FlagSubmissionResponse(false, 0, 0);
+        }
+
+        Instant solvedAt = Instant.now();
+        DefiSolvedEvent solved = accept(defiId, expected.ctfId(), participantEmail, participantPseudo, solvedAt, null);
+        if (solved == null) {
+            // Deux soumissions correctes simultanées du même participant
+            throw new ApiException(409, "DEFI_ALREADY_SOLVED", "Vous avez déjà résolu ce défi.");
+        }
+        return new FlagSubmissionResponse(true, solved.points, solved.ordre);
+    }
+
+    // Rejeu du journal : résolution journalisée mais absente de la base (perdue dans la file de SolveRecorder)
+    boolean restoreSolve(SubmissionJournal.Entry entry) {
+        return accept(entry.defiId(), entry.ctfId(), entry.email(), entry.pseudo(), entry.at(), entry) != null;
+    }
+
+    // null si le participant avait déjà résolu le défi ; journaled non null : résolution relue dans le journal
+    private DefiSolvedEvent accept(Long defiId, Long ctfId, String participantEmail, String participantPseudo, Instant solvedAt,
+                                   SubmissionJournal.Entry journaled) {
+        Set<String> defiSolvers = solversOf(defiId);
+        int ordre;
+        int value;
+        int delta;
+        List<String> previousSolvers = List.of();
+        // Un instantané des classements ne peut pas être pris entre l'écriture au journal et la mise en file
+        Lock lock = scoreboardSnapshot.solveLock();
+        lock.lock();
+        try {
+            // Verrou par défi : l'ajout, le comptage et la liste des résolveurs précédents restent cohérents
+            synchronized (defiSolvers) {
+                if (!defiSolvers.add(participantEmail)) {
+                    return null;
+                }
+                // L'ordre de résolution est la valeur du compteur atomique du défi, pris sous le même verrou que l'ajout
+                ordre = journaled != null ? defiScoring.restoreSolve(defiId, journaled.ordre()) : defiScoring.recordSolve(defiId);
+                value = defiScoring.value(defiId, ordre);
+                delta = value - defiScoring.value(defiId, ordre - 1);
+                if (delta != 0 && ordre > 1) {
+                    previousSolvers = new ArrayList<>(defiSolvers);
+                    previousSolvers.remove(participantEmail);
+                }
+            }
+
+            long seq = journaled != null
+                    ? journaled.seq()
+                    : submissionJournal.solve(defiId, ctfId, participantEmail, participantPseudo, value, solvedAt, ordre);
+            solveRecorder.enqueue(new SolveRecorder.Solve(defiId, participantEmail, value, solvedAt, ordre, seq));
+            scoreboardSnapshot.recordSolve(new SolveFact(defiId, ctfId, participantEmail, participantPseudo, solvedAt, ordre, seq));
+        } finally {
+            lock.unlock();
+        }
+
+        DefiSolvedEvent event = new DefiSolvedEvent(defiId, ctfId, participantEmail, participantPseudo, value, solvedAt, ordre,
+                previousSolvers, previousSolvers.isEmpty() ? 0 : delta);
+        defiSolvedEvent.fire(event);
+        return event;
+    }
+
+    private Set<String> solversOf(Long defiId) {
+        return solvers.computeIfAbsent(defiId, id -> ConcurrentHashMap.newKeySet());
+    }
+
+    private static DefiFlag toFlag(Long ctfId, String salt, String hash) {
+        return new DefiFlag(ctfId, FlagHashes.decode(salt), FlagHashes.decode(hash));
+    }
+}
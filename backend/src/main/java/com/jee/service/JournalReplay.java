@@ -0,0 +1,68 @@
+package com.jee.service;
+
+import com.jee.DTO.journal.JournalReplayResponse;
+import com.jee.exceptionHandler.ApiException;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejeu du journal des soumissions après un arrêt brutal : les résolutions journalisées qui n'ont pas
+ * atteint la base sont remises dans la file de SolveRecorder (ligne defi_resolutions et Participant.score).
+ * Au démarrage, ScoreboardSnapshot a déjà lu la fin du journal et les a appliquées aux classements ;
+ * le rejeu complet reste disponible pour un administrateur.
+ */
+@ApplicationScoped
+public class JournalReplay {
+
+    private static final Logger LOG = Logger.getLogger(JournalReplay.class);
+
+    @Inject
+    SubmissionJournal submissionJournal;
+    @Inject
+    FlagService flagService;
+    @Inject
+    ScoreboardSnapshot scoreboardSnapshot;
+    @Inject
+    DefiScoring defiScoring;
+    @Inject
+    SolveRecorder solveRecorder;
+
+    // Après les chargements en mémoire : DefiScoring compte déjà ces résolutions comme non écrites
+    void onStart(@Observes @Priority(Interceptor.Priority.PLATFORM_AFTER) StartupEvent event) {
+        int requeued = 0;
+        for (SolveFact solve : scoreboardSnapshot.bootMissing()) {
+            // Un défi supprimé depuis ferait échouer chaque lot suivant
+            if (defiScoring.exists(solve.defiId())) {
+                solveRecorder.enqueue(new SolveRecorder.Solve(solve.defiId(), solve.email(),
+                        defiScoring.value(solve.defiId(), solve.ordre()), solve.solvedAt(), solve.ordre(), solve.journalSeq()));
+                requeued++;
+            }
+        }
+        scoreboardSnapshot.bootCompleted();
+        if (requeued > 0) {
+            LOG.infof("%d résolutions du journal absentes de la base remises en file", requeued);
+        }
+    }
+
+    public JournalReplayResponse replay() {
+        AtomicLong recovered = new AtomicLong();
+        try {
+            SubmissionJournal.ReplayStats stats = submissionJournal.replay(entry -> {
+                if (entry.type() == SubmissionJournal.SOLVE && flagService.restoreSolve(entry)) {
+                    recovered.incrementAndGet();
+                }
+            });
+            return new JournalReplayResponse(stats.records, stats.corrupted, recovered.get());
+        } catch (IOException e) {
+            throw new ApiException(500, "JOURNAL_UNREADABLE", "Lecture du journal impossible : " + e.getMessage());
+        }
+    }
+}
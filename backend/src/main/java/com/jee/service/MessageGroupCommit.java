@@ -0,0 +1,179 @@
+package com.jee.service;
+
+import com.jee.DTO.messaging.MessageResponse;
+import com.jee.entity.Message;
+import com.jee.event.MessageSentEvent;
+import com.jee.exceptionHandler.ApiException;
+import com.jee.repository.ConversationRepository;
+import com.jee.repository.InboxRepository;
+import com.jee.repository.MessageRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ecriture groupée des messages (ctf.messaging.group-commit.enabled) : les envois concurrents sont mis en file,
+ * un thread dédié les écrit par lots en une transaction (un INSERT multi-lignes, un UPDATE des conversations,
+ * un UPDATE des boîtes de réception), puis acquitte chaque envoi après le commit. Si le lot est refusé par la base,
+ * ses messages sont réécrits un par un : seul l'envoi fautif reçoit une erreur.
+ * Pas d'attente artificielle : le lot suivant est tout ce qui est arrivé pendant l'écriture du précédent,
+ * si bien qu'un message isolé part aussitôt et que les lots grossissent avec la charge.
+ */
+@ApplicationScoped
+public class MessageGroupCommit {
+
+    private static final Logger LOG = Logger.getLogger(MessageGroupCommit.class);
+
+    private record Pending(Message message, String recipientEmail, CompletableFuture<MessageResponse> acknowledgement) {
+    }
+
+    @Inject
+    MessageRepository messageRepository;
+    @Inject
+    ConversationRepository conversationRepository;
+    @Inject
+    InboxRepository inboxRepository;
+    @Inject
+    Event<MessageSentEvent> messageSentEvent;
+
+    @ConfigProperty(name = "ctf.messaging.group-commit.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "ctf.messaging.group-commit.max-batch", defaultValue = "200")
+    int maxBatch;
+
+    @ConfigProperty(name = "ctf.messaging.group-commit.max-queued", defaultValue = "10000")
+    int maxQueued;
+
+    private LinkedBlockingQueue<Pending> queue;
+    private volatile boolean running;
+    private Thread flusher;
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            queue = new LinkedBlockingQueue<>(maxQueued);
+            running = true;
+            flusher = Thread.ofPlatform().name("message-group-commit").daemon().start(this::run);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        if (flusher != null) {
+            running = false;
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Terminé avec la réponse après le commit du lot, ou en erreur si le lot a échoué
+    public CompletionStage<MessageResponse> submit(Message message, String recipientEmail) {
+        CompletableFuture<MessageResponse> acknowledgement = new CompletableFuture<>();
+        if (!running || !queue.offer(new Pending(message, recipientEmail, acknowledgement))) {
+            throw new ApiException(503, "MESSAGE_QUEUE_FULL", "Trop de messages en attente, réessayez dans un instant.");
+        }
+        return acknowledgement;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            writeBatch(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1 || SolveRecorder.isTransient(e)) {
+                LOG.errorf(e, "Echec de l'écriture d'un lot de %d messages", batch.size());
+                fail(batch);
+                return;
+            }
+            // Une ligne refusée (conversation supprimée, contrainte) ne doit pas faire échouer les autres envois du lot
+            LOG.warnf(e, "Lot de %d messages refusé, écriture message par message", batch.size());
+            for (Pending pending : batch) {
+                flush(List.of(pending));
+            }
+            return;
+        }
+        // Hors transaction : les observateurs AFTER_SUCCESS sont notifiés immédiatement
+        for (Pending pending : batch) {
+            messageSentEvent.fire(MessagingService.sentEvent(pending.message(), pending.recipientEmail()));
+            pending.acknowledgement().complete(MessagingService.sentResponse(pending.message()));
+        }
+    }
+
+    private static void fail(List<Pending> batch) {
+        ApiException failure = new ApiException(503, "MESSAGE_NOT_SAVED", "Le message n'a pas pu être enregistré, réessayez.");
+        for (Pending pending : batch) {
+            pending.acknowledgement().completeExceptionally(failure);
+        }
+    }
+
+    @Transactional
+    void writeBatch(List<Pending> batch) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        Map<Long, Instant> lastMessageAt = new HashMap<>();
+        // conversation -> propriétaire de la ligne -> non lus ajoutés ; les deux participants peuvent écrire dans le même lot
+        Map<Long, Map<String, Integer>> unread = new LinkedHashMap<>();
+        Map<Long, Message> last = new HashMap<>();
+        for (Pending pending : batch) {
+            Message message = pending.message();
+            Long conversationId = message.getConversation().getId();
+            messages.add(message);
+            lastMessageAt.put(conversationId, message.getSentAt());
+            last.put(conversationId, message);
+
+            Map<String, Integer> owners = unread.computeIfAbsent(conversationId, id -> new HashMap<>());
+            owners.putIfAbsent(message.getSender().getEmail(), 0);
+            owners.merge(pending.recipientEmail(), 1, Integer::sum);
+        }
+
+        List<InboxRepository.InboxActivity> activity = new ArrayList<>();
+        unread.forEach((conversationId, owners) -> {
+            Message message = last.get(conversationId);
+            String preview = MessagingService.preview(message.getContent());
+            owners.forEach((ownerEmail, count) -> activity.add(
+                    new InboxRepository.InboxActivity(conversationId, ownerEmail, count, preview, message.getSentAt())));
+        });
+
+        conversationRepository.lockForInsert(lastMessageAt.keySet());
+        messageRepository.insertAll(messages);
+        conversationRepository.updateLastMessageAt(lastMessageAt);
+        inboxRepository.recordActivity(activity);
+    }
+}
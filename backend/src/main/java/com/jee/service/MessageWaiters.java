@@ -0,0 +1,73 @@
+package com.jee.service;
+
+import com.jee.event.MessageSentEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requêtes de long-polling en attente d'un nouveau message, par conversation. Une requête garée n'est
+ * qu'un CompletableFuture dans cette table : ni thread ni connexion à la base ne sont retenus pendant l'attente.
+ * L'envoi d'un message réveille, après le commit, toutes les requêtes garées sur sa conversation.
+ */
+@ApplicationScoped
+public class MessageWaiters {
+
+    private final ConcurrentHashMap<Long, Set<CompletableFuture<Boolean>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger parked = new AtomicInteger();
+
+    @ConfigProperty(name = "ctf.messaging.long-poll.max-waiters", defaultValue = "10000")
+    int maxWaiters;
+
+    // null si trop de requêtes sont déjà garées : l'appelant répond tout de suite
+    public CompletableFuture<Boolean> register(Long conversationId) {
+        if (parked.incrementAndGet() > maxWaiters) {
+            parked.decrementAndGet();
+            return null;
+        }
+        CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+        waiters.compute(conversationId, (id, conversationWaiters) -> {
+            Set<CompletableFuture<Boolean>> set = conversationWaiters == null ? ConcurrentHashMap.newKeySet() : conversationWaiters;
+            set.add(waiter);
+            return set;
+        });
+        // Réveil, expiration ou abandon : la place est libérée une seule fois
+        waiter.whenComplete((woken, failure) -> {
+            waiters.computeIfPresent(conversationId, (id, conversationWaiters) -> {
+                conversationWaiters.remove(waiter);
+                return conversationWaiters.isEmpty() ? null : conversationWaiters;
+            });
+            parked.decrementAndGet();
+        });
+        return waiter;
+    }
+
+    // true si un message est arrivé, false à l'expiration (délai tenu par le planificateur du JDK, pas par un thread)
+    public CompletionStage<Boolean> await(CompletableFuture<Boolean> waiter, Duration wait) {
+        return waiter.completeOnTimeout(false, wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void cancel(CompletableFuture<Boolean> waiter) {
+        if (waiter != null) {
+            waiter.complete(false);
+        }
+    }
+
+    void onMessageSent(@Observes(during = TransactionPhase.AFTER_SUCCESS) MessageSentEvent event) {
+        Set<CompletableFuture<Boolean>> conversationWaiters = waiters.remove(event.conversationId);
+        if (conversationWaiters != null) {
+            for (CompletableFuture<Boolean> waiter : conversationWaiters) {
+                waiter.complete(true);
+            }
+        }
+    }
+}
@@ -1,25 +1,46 @@
 package com.jee.service;
 
 import com.jee.DTO.messaging.*;
+import com.jee.DTO.pagination.MessagePageRequest;
 import com.jee.entity.Discussion;
 import com.jee.entity.Message;
 import com.jee.entity.User;
 import com.jee.entity.enums.Role;
+import com.jee.event.MessageSentEvent;
 import com.jee.exceptionHandler.ApiException;
+import com.jee.entity.ConversationReadState;
+import com.jee.entity.InboxEntry;
+import com.jee.repository.ConversationReadStateRepository;
 import com.jee.repository.ConversationRepository;
+import com.jee.repository.InboxRepository;
+import com.jee.repository.KeysetPage;
 import com.jee.repository.MessageRepository;
 import com.jee.repository.UserRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @ApplicationScoped
 public class MessagingService {
 
+    private static final Logger LOG = Logger.getLogger(MessagingService.class);
+
     @Inject
     ConversationRepository conversationRepository;
 
@@ -29,6 +50,45 @@ public class MessagingService {
     @Inject
     UserRepository userRepository;
 
+    @Inject
+    ConversationReadStateRepository conversationReadStateRepository;
+
+    @Inject
+    InboxRepository inboxRepository;
+
+    @Inject
+    MessageWaiters messageWaiters;
+
+    @Inject
+    MessageGroupCommit messageGroupCommit;
+
+    @Inject
+    ConversationTailCache conversationTailCache;
+
+    @Inject
+    Event<MessageSentEvent> messageSentEvent;
+
+    @ConfigProperty(name = "ctf.messaging.long-poll.max-wait", defaultValue = "30s")
+    Duration maxWait;
+
+    // Premier démarrage avec les repères de lecture : reprise des anciens indicateurs isRead,
+    // puis de la liste des conversations, dont les non lus se calculent avec ces repères
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        if (conversationReadStateRepository.isEmpty()) {
+            int backfilled = conversationReadStateRepository.backfillFromReadFlags();
+            if (backfilled > 0) {
+                LOG.infof("%d repères de lecture repris des messages marqués comme lus", backfilled);
+            }
+        }
+        if (inboxRepository.isEmpty()) {
+            int backfilled = inboxRepository.backfill();
+            if (backfilled > 0) {
+                LOG.infof("%d lignes de boîte de réception créées pour les conversations existantes", backfilled);
+            }
+        }
+    }
+
     // ve
     private void validateCanContact(User sender, User recipient) {
         if (sender.getEmail().equals(recipient.getEmail())) {
@@ -93,11 +153,46 @@ public class MessagingService {
         Discussion discussion = new Discussion(sender, recipient);
         conversationRepository.persist(discussion);
 
+        // Une ligne de boîte de réception par participant
+        inboxRepository.persist(new InboxEntry(senderEmail, discussion.getId(), recipient, discussion.getLastMessageAt()));
+        inboxRepository.persist(new InboxEntry(recipientEmail, discussion.getId(), sender, discussion.getLastMessageAt()));
+
         return discussion.getId();
     }
 
+    // Envoi d'un message : écrit dans la transaction de la requête, ou confié à MessageGroupCommit s'il est activé
+    public Uni<MessageResponse> submitMessage(Long conversationId, String senderEmail, String content) {
+        if (!messageGroupCommit.isEnabled()) {
+            return Uni.createFrom().item(sendMessage(conversationId, senderEmail, content));
+        }
+        // Lectures de validation seulement : aucune connexion n'est gardée pendant l'attente du lot
+        Message message = prepareMessage(conversationId, senderEmail, content);
+        return Uni.createFrom().completionStage(
+                messageGroupCommit.submit(message, message.getConversation().getOtherUser(senderEmail).getEmail()));
+    }
+
     @Transactional
     public MessageResponse sendMessage(Long conversationId, String senderEmail, String content) {
+        Message message = prepareMessage(conversationId, senderEmail, content);
+        Discussion discussion = message.getConversation();
+
+        conversationRepository.lockForInsert(List.of(conversationId));
+        messageRepository.persist(message);
+
+        // Mettre à jour lastMessageAt de la conversation
+        discussion.setLastMessageAt(message.getSentAt());
+
+        String recipientEmail = discussion.getOtherUser(senderEmail).getEmail();
+        inboxRepository.recordMessage(conversationId, recipientEmail, preview(message.getContent()), message.getSentAt());
+
+        // Poussé aux connexions WebSocket du destinataire après le commit
+        messageSentEvent.fire(sentEvent(message, recipientEmail));
+
+        return sentResponse(message);
+    }
+
+    // Validation et construction du message, sans écriture
+    private Message prepareMessage(Long conversationId, String senderEmail, String content) {
         if (content == null || content.trim().isEmpty()) {
             throw new ApiException(400, "EMPTY_MESSAGE", "Le message ne peut pas être vide.");
         }
@@ -130,44 +225,38 @@ public class MessagingService {
         message.setContent(content.trim());
         message.setSentAt(Instant.now());
         message.setRead(false);
+        return message;
+    }
 
-        messageRepository.persist(message);
-
-        // Mettre à jour lastMessageAt de la conversation
-        discussion.setLastMessageAt(Instant.now());
+    static MessageSentEvent sentEvent(Message message, String recipientEmail) {
+        return new MessageSentEvent(message.getConversation().getId(), message.getId(), message.getSender().getEmail(),
+                message.getSender().getPseudo(), recipientEmail, message.getContent(), message.getSentAt());
+    }
 
-        // Préparer la réponse
+    static MessageResponse sentResponse(Message message) {
         MessageResponse response = new MessageResponse();
         response.id = message.getId();
-        response.senderEmail = sender.getEmail();
-        response.senderPseudo = sender.getPseudo();
+        response.senderEmail = message.getSender().getEmail();
+        response.senderPseudo = message.getSender().getPseudo();
         response.content = message.getContent();
         response.sentAt = message.getSentAt();
-        response.isRead = message.isRead();
-
+        response.isRead = false;
         return response;
     }
 
+    // Lue dans la boîte de réception de l'utilisateur, sans toucher aux conversations ni aux messages
     public List<ConversationListResponse> getMyConversations(String userEmail) {
-        User user = userRepository.findUserByEmail(userEmail);
-        if (user == null) {
-            throw new ApiException(404, "USER_NOT_FOUND", "Utilisateur introuvable: " + userEmail);
-        }
-
-        List<Discussion> discussions = conversationRepository.findAllConversationsByUserEmail(userEmail);
         List<ConversationListResponse> responses = new ArrayList<>();
 
-        for (Discussion discussion : discussions) {
-            User otherUser = discussion.getOtherUser(userEmail);
-
+        for (InboxEntry entry : inboxRepository.findByOwnerEmail(userEmail)) {
             ConversationListResponse response = new ConversationListResponse();
-            response.conversationId = discussion.getId();
-            response.otherUserEmail = otherUser.getEmail();
-            response.otherUserPseudo = otherUser.getPseudo();
-            response.otherUserRole = otherUser.getRole().name();
-            response.lastMessageAt = discussion.getLastMessageAt();
-            response.unreadCount = messageRepository.countUnreadMessagesByConversationAndRecipient(
-                    discussion.getId(), userEmail);
+            response.conversationId = entry.getConversationId();
+            response.otherUserEmail = entry.getOtherUserEmail();
+            response.otherUserPseudo = entry.getOtherUserPseudo();
+            response.otherUserRole = entry.getOtherUserRole().name();
+            response.lastMessagePreview = entry.getLastMessagePreview();
+            response.lastMessageAt = entry.getLastMessageAt();
+            response.unreadCount = entry.getUnreadCount();
 
             responses.add(response);
         }
@@ -176,7 +265,7 @@ public class MessagingService {
     }
 
     @Transactional
-    public ConversationDetailsResponse getConversationDetails(Long conversationId, String userEmail) {
+    public ConversationDetailsResponse getConversationDetails(Long conversationId, String userEmail, MessagePageRequest page) {
         Discussion discussion = conversationRepository.findById(conversationId);
         if (discussion == null) {
             throw new ApiException(404, "CONVERSATION_NOT_FOUND", "Conversation introuvable: " + conversationId);
@@ -191,23 +280,12 @@ public class MessagingService {
 
         User otherUser = discussion.getOtherUser(userEmail);
 
-        // Marquer les messages comme lus
-        messageRepository.markMessagesAsReadByRecipient(conversationId, userEmail);
-
-        // Récupérer tous les messages
-        List<Message> messages = messageRepository.findAllMessagesByConversationId(conversationId);
-        List<MessageResponse> messageResponses = new ArrayList<>();
+        // Marquer les messages comme lus : le repère, puis le compteur de la boîte de réception
+        conversationReadStateRepository.markReadUpToLatest(conversationId, userEmail);
+        inboxRepository.refreshUnreadCount(conversationId, userEmail);
 
-        for (Message message : messages) {
-            MessageResponse messageResponse = new MessageResponse();
-            messageResponse.id = message.getId();
-            messageResponse.senderEmail = message.getSender().getEmail();
-            messageResponse.senderPseudo = message.getSender().getPseudo();
-            messageResponse.content = message.getContent();
-            messageResponse.sentAt = message.getSentAt();
-            messageResponse.isRead = message.isRead();
-            messageResponses.add(messageResponse);
-        }
+        // Une page de messages, les plus récents par défaut
+        KeysetPage<MessageResponse> messages = messagesPage(discussion, page);
 
         ConversationDetailsResponse response = new ConversationDetailsResponse();
         response.conversationId = discussion.getId();
@@ -215,13 +293,14 @@ public class MessagingService {
         response.otherUserPseudo = otherUser.getPseudo();
         response.otherUserRole = otherUser.getRole().name();
         response.createdAt = discussion.getCreatedAt();
-        response.messages = messageResponses;
+        response.messages = messages.items;
+        response.nextCursor = messages.nextCursor;
 
         return response;
     }
 
     // recuperer seulement les messages d'une conversation sans les marquer comme lus
-    public List<MessageResponse> getConversationMessages(Long conversationId, String userEmail) {
+    public KeysetPage<MessageResponse> getConversationMessages(Long conversationId, String userEmail, MessagePageRequest page) {
         Discussion discussion = conversationRepository.findById(conversationId);
         if (discussion == null) {
             throw new ApiException(404, "CONVERSATION_NOT_FOUND", "Conversation introuvable: " + conversationId);
@@ -234,21 +313,83 @@ public class MessagingService {
                     "Vous ne faites pas partie de cette conversation.");
         }
 
-        List<Message> messages = messageRepository.findAllMessagesByConversationId(conversationId);
-        List<MessageResponse> messageResponses = new ArrayList<>();
+        return messagesPage(discussion, page);
+    }
 
-        for (Message message : messages) {
-            MessageResponse messageResponse = new MessageResponse();
-            messageResponse.id = message.getId();
-            messageResponse.senderEmail = message.getSender().getEmail();
-            messageResponse.senderPseudo = message.getSender().getPseudo();
-            messageResponse.content = message.getContent();
-            messageResponse.sentAt = message.getSentAt();
-            messageResponse.isRead = message.isRead();
-            messageResponses.add(messageResponse);
+    /*
+     * Long-polling : les messages après page.after, ou une page vide si aucun n'arrive avant `wait`.
+     * La requête est inscrite avant la première lecture, si bien qu'un message envoyé entre les deux la réveille.
+     * page.after ne saute aucun message : ceux d'une conversation sont validés dans l'ordre de leurs ids
+     * (ConversationRepository.lockForInsert, pris par sendMessage et par MessageGroupCommit).
+     * Pendant l'attente, aucun thread ni aucune connexion n'est retenu ; la relecture se fait sur un worker.
+     */
+    public Uni<KeysetPage<MessageResponse>> waitForMessages(Long conversationId, String userEmail, MessagePageRequest page,
+                                                            String wait) {
+        Duration waitFor = parseWait(wait);
+        if (waitFor.isZero() || page.after == null) {
+            return Uni.createFrom().item(getConversationMessages(conversationId, userEmail, page));
         }
 
-        return messageResponses;
+        CompletableFuture<Boolean> waiter = messageWaiters.register(conversationId);
+        KeysetPage<MessageResponse> messages;
+        try {
+            messages = getConversationMessages(conversationId, userEmail, page);
+        } catch (RuntimeException e) {
+            messageWaiters.cancel(waiter);
+            throw e;
+        }
+        if (waiter == null || !messages.items.isEmpty()) {
+            messageWaiters.cancel(waiter);
+            return Uni.createFrom().item(messages);
+        }
+
+        // Client déconnecté avant le réveil : la place est libérée tout de suite, pas à l'expiration du délai
+        return Uni.createFrom().completionStage(messageWaiters.await(waiter, waitFor))
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .map(woken -> woken ? fetchMessages(conversationId, page) : messages)
+                .onCancellation().invoke(() -> messageWaiters.cancel(waiter));
+    }
+
+    // Appelé hors de la requête HTTP d'origine, au réveil
+    @ActivateRequestContext
+    KeysetPage<MessageResponse> fetchMessages(Long conversationId, MessagePageRequest page) {
+        return messagesPage(conversationRepository.findById(conversationId), page);
+    }
+
+    // Première page et ?after= servies par ConversationTailCache quand c'est possible
+    private KeysetPage<MessageResponse> messagesPage(Discussion discussion, MessagePageRequest page) {
+        Map<String, Long> lastRead = lastReadByUser(discussion.getId());
+        KeysetPage<MessageResponse> cached = conversationTailCache.page(discussion.getId(), page);
+        if (cached != null) {
+            for (MessageResponse message : cached.items) {
+                String recipientEmail = discussion.getOtherUser(message.senderEmail).getEmail();
+                message.isRead = message.id <= lastRead.getOrDefault(recipientEmail, 0L);
+            }
+            return cached;
+        }
+        return messageRepository.findPageByConversationId(discussion.getId(), page, null)
+                .map(message -> toMessageResponse(discussion, message, lastRead));
+    }
+
+    // "25s" ou "25" (secondes), borné par ctf.messaging.long-poll.max-wait
+    private Duration parseWait(String wait) {
+        if (wait == null || wait.isBlank()) {
+            return Duration.ZERO;
+        }
+        String seconds = wait.strip();
+        if (seconds.endsWith("s")) {
+            seconds = seconds.substring(0, seconds.length() - 1);
+        }
+        try {
+            long value = Long.parseLong(seconds);
+            if (value < 0) {
+                throw new NumberFormatException();
+            }
+            Duration duration = Duration.ofSeconds(value);
+            return duration.compareTo(maxWait) > 0 ? maxWait : duration;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "INVALID_WAIT", "Le paramètre wait doit être une durée en secondes (ex. 25s).");
+        }
     }
 
     // marquer tous les messages d'une conversation comme lus
@@ -266,29 +407,17 @@ public class MessagingService {
                     "Vous ne faites pas partie de cette conversation.");
         }
 
-        messageRepository.markMessagesAsReadByRecipient(conversationId, userEmail);
+        conversationReadStateRepository.markReadUpToLatest(conversationId, userEmail);
+        inboxRepository.refreshUnreadCount(conversationId, userEmail);
     }
 
     // compter le nombre total de messages non lus pour un utilisateur
     public int getTotalUnreadCount(String userEmail) {
-        User user = userRepository.findUserByEmail(userEmail);
-        if (user == null) {
-            throw new ApiException(404, "USER_NOT_FOUND", "Utilisateur introuvable: " + userEmail);
-        }
-
-        List<Discussion> discussions = conversationRepository.findAllConversationsByUserEmail(userEmail);
-        int totalUnread = 0;
-
-        for (Discussion discussion : discussions) {
-            totalUnread += messageRepository.countUnreadMessagesByConversationAndRecipient(
-                    discussion.getId(), userEmail);
-        }
-
-        return totalUnread;
+        return inboxRepository.sumUnreadByOwnerEmail(userEmail);
     }
 
     // recuperer seulement les messages non lus d'une conversation
-    public List<MessageResponse> getUnreadMessages(Long conversationId, String userEmail) {
+    public KeysetPage<MessageResponse> getUnreadMessages(Long conversationId, String userEmail, MessagePageRequest page) {
         Discussion discussion = conversationRepository.findById(conversationId);
         if (discussion == null) {
             throw new ApiException(404, "CONVERSATION_NOT_FOUND", "Conversation introuvable: " + conversationId);
@@ -301,23 +430,43 @@ public class MessagingService {
                     "Vous ne faites pas partie de cette conversation.");
         }
 
-        List<Message> messages = messageRepository.findAllMessagesByConversationId(conversationId);
-        List<MessageResponse> unreadMessages = new ArrayList<>();
-
-        for (Message message : messages) {
-            // Ne retourner que les messages non lus qui ne sont pas envoyés par l'utilisateur courant
-            if (!message.isRead() && !message.getSender().getEmail().equals(userEmail)) {
-                MessageResponse messageResponse = new MessageResponse();
-                messageResponse.id = message.getId();
-                messageResponse.senderEmail = message.getSender().getEmail();
-                messageResponse.senderPseudo = message.getSender().getPseudo();
-                messageResponse.content = message.getContent();
-                messageResponse.sentAt = message.getSentAt();
-                messageResponse.isRead = message.isRead();
-                unreadMessages.add(messageResponse);
-            }
+        // Ne retourner que les messages non lus qui ne sont pas envoyés par l'utilisateur courant (filtré en base)
+        Map<String, Long> lastRead = lastReadByUser(conversationId);
+        return messageRepository.findPageByConversationId(conversationId, page, userEmail)
+                .map(message -> toMessageResponse(discussion, message, lastRead));
+    }
+
+    static String preview(String content) {
+        if (content.length() <= InboxEntry.PREVIEW_LENGTH) {
+            return content;
+        }
+        int end = InboxEntry.PREVIEW_LENGTH;
+        // Ne pas couper une paire de substitution
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
         }
+        return content.substring(0, end);
+    }
+
+    private Map<String, Long> lastReadByUser(Long conversationId) {
+        Map<String, Long> lastRead = new HashMap<>();
+        for (ConversationReadState state : conversationReadStateRepository.findByConversationId(conversationId)) {
+            lastRead.put(state.getUserEmail(), state.getLastReadMessageId());
+        }
+        return lastRead;
+    }
 
-        return unreadMessages;
+    // Un message est lu quand son destinataire a lu la conversation au moins jusqu'à lui
+    private MessageResponse toMessageResponse(Discussion discussion, Message message, Map<String, Long> lastRead) {
+        String recipientEmail = discussion.getOtherUser(message.getSender().getEmail()).getEmail();
+
+        MessageResponse messageResponse = new MessageResponse();
+        messageResponse.id = message.getId();
+        messageResponse.senderEmail = message.getSender().getEmail();
+        messageResponse.senderPseudo = message.getSender().getPseudo();
+        messageResponse.content = message.getContent();
+        messageResponse.sentAt = message.getSentAt();
+        messageResponse.isRead = message.getId() <= lastRead.getOrDefault(recipientEmail, 0L);
+        return messageResponse;
     }
 }
\ No newline at end of file
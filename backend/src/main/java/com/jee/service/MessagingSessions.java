@@ -0,0 +1,147 @@
+package com.jee.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jee.DTO.messaging.MessagePushFrame;
+import com.jee.DTO.messaging.MessageResponse;
+import com.jee.event.MessageSentEvent;
+import io.quarkus.websockets.next.CloseReason;
+import io.quarkus.websockets.next.WebSocketConnection;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connexions WebSocket ouvertes par utilisateur. Chaque connexion a sa file d'envoi bornée et au plus
+ * un envoi en cours : un client trop lent ne bloque ni l'envoi du message ni les autres connexions.
+ * Quand sa file est pleine, la connexion est fermée ; le client se reconnecte et rattrape les messages
+ * manqués avec ?after= sur l'historique de la conversation.
+ */
+@ApplicationScoped
+public class MessagingSessions {
+
+    private static final Logger LOG = Logger.getLogger(MessagingSessions.class);
+    private static final CloseReason SLOW_CONSUMER = new CloseReason(1008, "Trop de messages en attente");
+
+    private final class Session {
+        final WebSocketConnection connection;
+        final ConcurrentLinkedQueue<String> outbound = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        Session(WebSocketConnection connection) {
+            this.connection = connection;
+        }
+
+        void offer(String frame) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                LOG.debugf("Connexion %s trop lente, fermée", connection.id());
+                connection.close(SLOW_CONSUMER).subscribe().with(ignored -> { }, ignored -> { });
+                return;
+            }
+            outbound.add(frame);
+            drain();
+        }
+
+        // Un seul envoi à la fois : le suivant part quand le précédent est terminé
+        void drain() {
+            while (!outbound.isEmpty() && sending.compareAndSet(false, true)) {
+                String frame = outbound.poll();
+                if (frame == null) {
+                    sending.set(false);
+                    continue;
+                }
+                queued.decrementAndGet();
+                connection.sendText(frame).subscribe().with(
+                        ignored -> {
+                            sending.set(false);
+                            drain();
+                        },
+                        failure -> {
+                            sending.set(false);
+                            LOG.debugf("Envoi impossible sur la connexion %s : %s", connection.id(), failure.getMessage());
+                        });
+                return;
+            }
+        }
+    }
+
+    // email -> connexions ouvertes (plusieurs onglets ou appareils)
+    private final ConcurrentHashMap<String, Set<Session>> sessions = new ConcurrentHashMap<>();
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "ctf.messaging.ws.max-queued", defaultValue = "64")
+    int maxQueued;
+
+    public void register(String email, WebSocketConnection connection) {
+        sessions.computeIfAbsent(email, e -> ConcurrentHashMap.newKeySet()).add(new Session(connection));
+    }
+
+    public void unregister(String email, WebSocketConnection connection) {
+        sessions.computeIfPresent(email, (e, userSessions) -> {
+            userSessions.removeIf(session -> session.connection.id().equals(connection.id()));
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    // Une trame sérialisée une seule fois, envoyée à toutes les connexions des utilisateurs donnés
+    public void push(Collection<String> emails, Object payload) {
+        String frame;
+        try {
+            frame = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            LOG.errorf(e, "Sérialisation de la trame %s impossible", payload.getClass().getSimpleName());
+            return;
+        }
+        for (String email : emails) {
+            Set<Session> userSessions = sessions.get(email);
+            if (userSessions == null) {
+                continue;
+            }
+            for (Session session : userSessions) {
+                session.offer(frame);
+            }
+        }
+    }
+
+    // Après le commit : un message annulé n'est jamais poussé
+    void onMessageSent(@Observes(during = TransactionPhase.AFTER_SUCCESS) MessageSentEvent event) {
+        Set<Session> recipientSessions = sessions.get(event.recipientEmail);
+        if (recipientSessions == null || recipientSessions.isEmpty()) {
+            return;
+        }
+
+        MessageResponse message = new MessageResponse();
+        message.id = event.messageId;
+        message.senderEmail = event.senderEmail;
+        message.senderPseudo = event.senderPseudo;
+        message.content = event.content;
+        message.sentAt = event.sentAt;
+        message.isRead = false;
+
+        String frame;
+        try {
+            // Sérialisé une seule fois pour toutes les connexions du destinataire
+            frame = objectMapper.writeValueAsString(new MessagePushFrame("message", event.conversationId, message));
+        } catch (JsonProcessingException e) {
+            LOG.errorf(e, "Sérialisation du message %d impossible", event.messageId);
+            return;
+        }
+        for (Session session : recipientSessions) {
+            session.offer(frame);
+        }
+    }
+}
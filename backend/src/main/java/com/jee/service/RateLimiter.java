@@ -0,0 +1,76 @@
+package com.jee.service;
+
+import com.jee.exceptionHandler.RateLimitedException;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons par clé, version GCRA : l'état d'un seau est un seul long (l'instant théorique où il
+ * sera de nouveau plein), mis à jour par CAS. Un seau dont cet instant est passé est plein, donc
+ * équivalent à une clé absente : on peut le supprimer sans rien perdre, ce que fait evictExpired().
+ * Si la table est pleine de seaux actifs, une nouvelle clé passe sans seau : refuser toute clé inconnue
+ * permettrait de bloquer tout le monde en remplissant la table de fausses clés.
+ */
+final class RateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // permits jetons par période, au plus burst d'affilée
+    RateLimiter(int permits, Duration period, int burst, int maxKeys) {
+        this.emissionIntervalNanos = period.toNanos() / permits;
+        this.burstWindowNanos = emissionIntervalNanos * burst;
+        this.maxKeys = maxKeys;
+    }
+
+    void acquire(String key) {
+        acquire(key, System.nanoTime());
+    }
+
+    // now : horloge System.nanoTime()
+    void acquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evictExpired(now);
+                if (buckets.size() >= maxKeys) {
+                    // Table pleine de seaux actifs : la clé n'est pas suivie plutôt que de grossir sans limite
+                    return;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long excess = newTat - now - burstWindowNanos;
+            if (excess > 0) {
+                throw new RateLimitedException(retryAfterSeconds(excess));
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return;
+            }
+        }
+    }
+
+    void evictExpired() {
+        evictExpired(System.nanoTime());
+    }
+
+    void evictExpired(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private static long retryAfterSeconds(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,99 @@
+package com.jee.service;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Limites de débit appliquées avant tout accès à la base ou calcul bcrypt :
+ * soumissions de flags par participant, connexions par email et par IP.
+ * Derrière un reverse proxy, l'IP du client est lue dans X-Forwarded-For, seulement si la connexion vient
+ * d'une adresse listée dans ctf.rate-limit.trusted-proxies.
+ */
+@ApplicationScoped
+public class RateLimits {
+
+    @ConfigProperty(name = "ctf.rate-limit.submit.per-minute", defaultValue = "20")
+    int submitPerMinute;
+    @ConfigProperty(name = "ctf.rate-limit.submit.burst", defaultValue = "10")
+    int submitBurst;
+    @ConfigProperty(name = "ctf.rate-limit.login.per-minute", defaultValue = "5")
+    int loginPerMinute;
+    @ConfigProperty(name = "ctf.rate-limit.login.burst", defaultValue = "5")
+    int loginBurst;
+    @ConfigProperty(name = "ctf.rate-limit.login-ip.per-minute", defaultValue = "30")
+    int loginIpPerMinute;
+    @ConfigProperty(name = "ctf.rate-limit.login-ip.burst", defaultValue = "20")
+    int loginIpBurst;
+    @ConfigProperty(name = "ctf.rate-limit.max-keys", defaultValue = "100000")
+    int maxKeys;
+    @ConfigProperty(name = "ctf.rate-limit.trusted-proxies")
+    Optional<List<String>> trustedProxies;
+
+    private RateLimiter submissions;
+    private RateLimiter logins;
+    private RateLimiter loginAddresses;
+    private Set<String> trusted;
+
+    @PostConstruct
+    void init() {
+        Duration minute = Duration.ofMinutes(1);
+        submissions = new RateLimiter(submitPerMinute, minute, submitBurst, maxKeys);
+        logins = new RateLimiter(loginPerMinute, minute, loginBurst, maxKeys);
+        loginAddresses = new RateLimiter(loginIpPerMinute, minute, loginIpBurst, maxKeys);
+        trusted = Set.copyOf(trustedProxies.orElse(List.of()));
+    }
+
+    public void checkSubmission(String participantEmail) {
+        submissions.acquire(participantEmail);
+    }
+
+    public void checkLogin(String email, String remoteAddress) {
+        if (remoteAddress != null) {
+            loginAddresses.acquire(remoteAddress);
+        }
+        if (email != null) {
+            logins.acquire(email.toLowerCase());
+        }
+    }
+
+    public String clientAddress(String remoteAddress, String forwardedFor) {
+        return clientAddress(trusted, remoteAddress, forwardedFor);
+    }
+
+    /*
+     * Chaque proxy ajoute à droite de X-Forwarded-For l'adresse qui s'est connectée à lui : on remonte depuis la droite
+     * tant que l'adresse est un proxy de confiance. Les valeurs plus à gauche peuvent venir du client, elles sont ignorées.
+     */
+    static String clientAddress(Set<String> trusted, String remoteAddress, String forwardedFor) {
+        if (remoteAddress == null || !trusted.contains(remoteAddress) || forwardedFor == null || forwardedFor.isBlank()) {
+            return remoteAddress;
+        }
+        String[] hops = forwardedFor.split(",");
+        String client = remoteAddress;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].strip();
+            if (hop.isEmpty()) {
+                break;
+            }
+            client = hop;
+            if (!trusted.contains(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictExpired() {
+        submissions.evictExpired();
+        logins.evictExpired();
+        loginAddresses.evictExpired();
+    }
+}
@@ -0,0 +1,115 @@
+package com.jee.service;
+
+import com.jee.DTO.scoreboard.ScoreHistoryResponse;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historique des scores par CTF pour le graphe "score dans le temps" : une ScoreSeries par participant,
+ * alimentée par ScoreboardService à chaque changement de score. Au démarrage, les séries sont rejouées
+ * à partir des résolutions, dans l'ordre chronologique, avec la valeur de chaque défi à l'ordre de la résolution :
+ * le graphe est le même avant et après un redémarrage.
+ */
+@ApplicationScoped
+public class ScoreHistory {
+
+    public static final int MAX_TOP = 50;
+    public static final int MAX_POINTS = 1000;
+
+    private static final class CtfHistory {
+        final ConcurrentHashMap<String, ScoreSeries> series = new ConcurrentHashMap<>();
+        volatile long firstTime = Long.MAX_VALUE;
+    }
+
+    private final ConcurrentHashMap<Long, CtfHistory> histories = new ConcurrentHashMap<>();
+
+    @Inject
+    ScoreboardSnapshot scoreboardSnapshot;
+    @Inject
+    DefiScoring defiScoring;
+    @Inject
+    ScoreboardService scoreboardService;
+
+    void onStart(@Observes StartupEvent event) {
+        List<SolveFact> chronological = new ArrayList<>();
+        for (SolveFact solve : scoreboardSnapshot.solves()) {
+            if (solve.ctfId() != null) {
+                chronological.add(solve);
+            }
+        }
+        chronological.sort(Comparator.comparing(SolveFact::solvedAt).thenComparingInt(SolveFact::ordre).thenComparingLong(SolveFact::journalSeq));
+
+        // Même déroulé qu'en direct : chaque résolveur reçoit la valeur du défi à son ordre de résolution,
+        // et les résolveurs précédents la baisse de valeur au moment de chaque nouvelle résolution
+        Map<Long, Map<String, Long>> totals = new HashMap<>();
+        Map<Long, List<String>> solvers = new HashMap<>();
+        for (SolveFact solve : chronological) {
+            Map<String, Long> scores = totals.computeIfAbsent(solve.ctfId(), id -> new HashMap<>());
+            List<String> previousSolvers = solvers.computeIfAbsent(solve.defiId(), id -> new ArrayList<>());
+            int value = defiScoring.value(solve.defiId(), solve.ordre());
+            int delta = value - defiScoring.value(solve.defiId(), solve.ordre() - 1);
+            if (delta != 0 && solve.ordre() > 1) {
+                for (String previousSolver : previousSolvers) {
+                    record(solve.ctfId(), previousSolver, solve.solvedAt(), scores.merge(previousSolver, (long) delta, Long::sum));
+                }
+            }
+            previousSolvers.add(solve.email());
+            record(solve.ctfId(), solve.email(), solve.solvedAt(), scores.merge(solve.email(), (long) value, Long::sum));
+        }
+    }
+
+    void record(Long ctfId, String email, Instant at, long score) {
+        CtfHistory history = histories.computeIfAbsent(ctfId, id -> new CtfHistory());
+        long time = at.toEpochMilli();
+        ScoreSeries series = history.series.computeIfAbsent(email, e -> new ScoreSeries());
+        synchronized (series) {
+            series.append(time, score);
+        }
+        if (time < history.firstTime) {
+            history.firstTime = time;
+        }
+    }
+
+    public List<ScoreHistoryResponse> history(Long ctfId, Integer top, Integer points) {
+        int limit = top == null ? 10 : Math.max(1, Math.min(top, MAX_TOP));
+        int buckets = points == null ? 200 : Math.max(2, Math.min(points, MAX_POINTS));
+
+        CtfHistory history = histories.get(ctfId);
+        List<ScoreHistoryResponse> response = new ArrayList<>();
+        if (history == null) {
+            return response;
+        }
+
+        long from = history.firstTime;
+        long to = System.currentTimeMillis();
+        for (Scoreboard.Entry entry : scoreboardService.scoreboard(ctfId).top(limit)) {
+            ScoreSeries series = history.series.get(entry.email());
+            long[] times = new long[buckets + 2];
+            long[] scores = new long[buckets + 2];
+            int[] count = {0};
+            if (series != null) {
+                synchronized (series) {
+                    series.downsample(from, to, buckets, (time, score) -> {
+                        times[count[0]] = time;
+                        scores[count[0]] = score;
+                        count[0]++;
+                    });
+                }
+            }
+            response.add(new ScoreHistoryResponse(response.size() + 1, entry.pseudo(),
+                    Arrays.copyOf(times, count[0]), Arrays.copyOf(scores, count[0])));
+        }
+        return response;
+    }
+}
@@ -0,0 +1,152 @@
+package com.jee.service;
+
+import java.util.Arrays;
+
+/**
+ * Série (instant, score) d'un participant, en tableaux de long primitifs.
+ * Chaque point est un delta par rapport au précédent, tassé dans un seul long :
+ * 40 bits d'écart en millisecondes, 24 bits signés d'écart de score. Tous les KEYFRAME_INTERVAL points
+ * (ou si un écart ne tient pas dans un long) on ajoute un point de reprise absolu (index, instant, score),
+ * ce qui permet de relire la série à partir de n'importe quel point de reprise.
+ * Non synchronisé : l'appelant gère la concurrence.
+ */
+final class ScoreSeries {
+
+    private static final int KEYFRAME_INTERVAL = 64;
+    private static final int SCORE_BITS = 24;
+    private static final long MAX_DT = (1L << (Long.SIZE - SCORE_BITS)) - 1;
+    private static final long MIN_DSCORE = -(1L << (SCORE_BITS - 1));
+    private static final long MAX_DSCORE = (1L << (SCORE_BITS - 1)) - 1;
+
+    private long[] deltas = new long[4];
+    private int size;
+
+    // Triplets (index, instant, score)
+    private long[] keyframes = new long[3 * 2];
+    private int keyframeCount;
+
+    private long lastTime;
+    private long lastScore;
+
+    void append(long timeMillis, long score) {
+        // Série croissante dans le temps : un point arrivé en retard est ramené à l'instant du précédent
+        long time = size == 0 ? timeMillis : Math.max(timeMillis, lastTime);
+        long dt = time - lastTime;
+        long dScore = score - lastScore;
+
+        boolean fits = dt <= MAX_DT && dScore >= MIN_DSCORE && dScore <= MAX_DSCORE;
+        if (size == 0 || size % KEYFRAME_INTERVAL == 0 || !fits) {
+            addKeyframe(size, time, score);
+        }
+        if (size == deltas.length) {
+            deltas = Arrays.copyOf(deltas, size * 2);
+        }
+        deltas[size++] = fits ? (dt << SCORE_BITS) | (dScore & ((1L << SCORE_BITS) - 1)) : 0;
+        lastTime = time;
+        lastScore = score;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long lastTime() {
+        return lastTime;
+    }
+
+    long lastScore() {
+        return lastScore;
+    }
+
+    /*
+     * Ré-échantillonnage en escalier : [from, to] est découpé en buckets tranches et on garde pour chacune
+     * le score au dernier point qu'elle contient. La lecture commence au dernier point de reprise avant from ;
+     * le score atteint avant from est émis à l'instant from.
+     */
+    void downsample(long from, long to, int buckets, LongSink sink) {
+        if (size == 0) {
+            return;
+        }
+        double width = Math.max(1.0, (double) (to - from) / buckets);
+
+        int keyframe = keyframeAtOrBeforeTime(from);
+        int index = (int) keyframes[keyframe * 3];
+        long time = keyframes[keyframe * 3 + 1];
+        long score = keyframes[keyframe * 3 + 2];
+
+        boolean hasBefore = false;
+        long before = 0;
+        boolean pending = false;
+        long pendingTime = 0;
+        long pendingScore = 0;
+        long currentBucket = -1;
+        for (int i = index; i < size; i++) {
+            if (i != index) {
+                if (keyframe + 1 < keyframeCount && keyframes[(keyframe + 1) * 3] == i) {
+                    keyframe++;
+                    time = keyframes[keyframe * 3 + 1];
+                    score = keyframes[keyframe * 3 + 2];
+                } else {
+                    time += deltas[i] >>> SCORE_BITS;
+                    score += (deltas[i] << (Long.SIZE - SCORE_BITS)) >> (Long.SIZE - SCORE_BITS);
+                }
+            }
+            if (time < from) {
+                hasBefore = true;
+                before = score;
+                continue;
+            }
+            if (time > to) {
+                break;
+            }
+            if (hasBefore) {
+                sink.accept(from, before);
+                hasBefore = false;
+            }
+            long bucket = (long) ((time - from) / width);
+            if (pending && bucket != currentBucket) {
+                sink.accept(pendingTime, pendingScore);
+            }
+            currentBucket = bucket;
+            pendingTime = time;
+            pendingScore = score;
+            pending = true;
+        }
+        if (hasBefore) {
+            sink.accept(from, before);
+        }
+        if (pending) {
+            sink.accept(pendingTime, pendingScore);
+        }
+    }
+
+    @FunctionalInterface
+    interface LongSink {
+        void accept(long time, long score);
+    }
+
+    private void addKeyframe(int index, long time, long score) {
+        if (keyframeCount * 3 == keyframes.length) {
+            keyframes = Arrays.copyOf(keyframes, keyframes.length * 2);
+        }
+        keyframes[keyframeCount * 3] = index;
+        keyframes[keyframeCount * 3 + 1] = time;
+        keyframes[keyframeCount * 3 + 2] = score;
+        keyframeCount++;
+    }
+
+    // Dernier point de reprise dont l'instant est <= time (le premier s'il n'y en a pas)
+    private int keyframeAtOrBeforeTime(long time) {
+        int low = 0;
+        int high = keyframeCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keyframes[mid * 3 + 1] <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
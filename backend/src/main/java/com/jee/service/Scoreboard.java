@@ -0,0 +1,166 @@
+package com.jee.service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Classement d'un CTF : score décroissant, puis dernière résolution la plus ancienne, puis email.
+ * Une résolution retire l'entrée du participant et la réinsère avec son nouveau score, en O(log n).
+ * Seuls les participants inscrits sont classés : les points des autres (partis, ou jamais inscrits) sont tenus
+ * à part et les suivent s'ils (re)joignent le CTF, comme lors d'une reconstruction au démarrage.
+ */
+public final class Scoreboard {
+
+    public record Entry(String email, String pseudo, int score, Instant lastSolveAt) {
+    }
+
+    // Rang à partir de 1
+    public record Standing(int rank, Entry entry) {
+    }
+
+    // Un participant sans résolution passe après ceux qui en ont
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::lastSolveAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::email);
+
+    private final OrderStatisticTree<Entry> tree = new OrderStatisticTree<>(ORDER);
+    private final Map<String, Entry> byEmail = new HashMap<>();
+    // Hors classement
+    private final Map<String, Entry> outside = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Inscription : classé avec les points déjà acquis (0 s'il n'a rien résolu), s'il ne l'est pas déjà
+    public void join(String email, String pseudo) {
+        lock.writeLock().lock();
+        try {
+            if (!byEmail.containsKey(email)) {
+                Entry previous = outside.remove(email);
+                put(previous == null ? new Entry(email, pseudo, 0, null) : previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Départ : retiré du classement, ses points sont gardés ; false s'il n'était pas classé
+    public boolean leave(String email) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = byEmail.remove(email);
+            if (entry == null) {
+                return false;
+            }
+            tree.remove(entry);
+            outside.put(email, entry);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // null si le participant n'est pas classé : les points sont comptés, sans apparaître dans le classement
+    public Entry addSolve(String email, String pseudo, int points, Instant solvedAt) {
+        lock.writeLock().lock();
+        try {
+            boolean ranked = byEmail.containsKey(email);
+            Entry previous = ranked ? byEmail.get(email) : outside.get(email);
+            int score = points;
+            Instant lastSolveAt = solvedAt;
+            if (previous != null) {
+                if (ranked) {
+                    tree.remove(previous);
+                }
+                score += previous.score();
+                if (previous.lastSolveAt() != null && previous.lastSolveAt().isAfter(solvedAt)) {
+                    lastSolveAt = previous.lastSolveAt();
+                }
+                if (pseudo == null) {
+                    pseudo = previous.pseudo();
+                }
+            }
+            Entry entry = new Entry(email, pseudo, score, lastSolveAt);
+            if (!ranked) {
+                outside.put(email, entry);
+                return null;
+            }
+            put(entry);
+            return entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Changement de valeur d'un défi déjà résolu : le score bouge, pas la date de dernière résolution
+    // null si le participant n'est pas classé
+    public Entry adjust(String email, int delta) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = byEmail.get(email);
+            if (previous == null) {
+                previous = outside.get(email);
+                if (previous != null) {
+                    outside.put(email, new Entry(email, previous.pseudo(), previous.score() + delta, previous.lastSolveAt()));
+                }
+                return null;
+            }
+            tree.remove(previous);
+            Entry entry = new Entry(email, previous.pseudo(), previous.score() + delta, previous.lastSolveAt());
+            put(entry);
+            return entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String email) {
+        lock.readLock().lock();
+        try {
+            return byEmail.containsKey(email);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // null si le participant n'est pas classé
+    public Standing standingOf(String email) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byEmail.get(email);
+            return entry == null ? null : new Standing(tree.rank(entry) + 1, entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int limit) {
+        return range(0, limit);
+    }
+
+    public List<Entry> range(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return tree.range(offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        byEmail.put(entry.email(), entry);
+        tree.insert(entry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.jee.service;
+
+import com.jee.DTO.scoreboard.ScoreboardEntryResponse;
+import com.jee.event.CtfJoinedEvent;
+import com.jee.event.CtfLeftEvent;
+import com.jee.event.DefiSolvedEvent;
+import com.jee.exceptionHandler.ApiException;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classements en direct, un par CTF. Ils sont construits une fois au démarrage (inscriptions et résolutions
+ * fournies par ScoreboardSnapshot), puis tenus à jour uniquement par les événements d'inscription, de départ et de résolution.
+ */
+@ApplicationScoped
+public class ScoreboardService {
+
+    public static final int MAX_TOP = 100;
+
+    private final ConcurrentHashMap<Long, Scoreboard> scoreboards = new ConcurrentHashMap<>();
+
+    @Inject
+    ScoreboardSnapshot scoreboardSnapshot;
+    @Inject
+    DefiScoring defiScoring;
+    @Inject
+    ScoreHistory scoreHistory;
+
+    void onStart(@Observes StartupEvent event) {
+        for (ScoreboardSnapshot.Join join : scoreboardSnapshot.bootJoins()) {
+            scoreboard(join.ctfId()).join(join.email(), join.pseudo());
+        }
+        // Chaque résolveur a la valeur actuelle du défi
+        for (SolveFact solve : scoreboardSnapshot.solves()) {
+            if (solve.ctfId() != null) {
+                scoreboard(solve.ctfId()).addSolve(solve.email(), solve.pseudo(), defiScoring.currentValue(solve.defiId()), solve.solvedAt());
+            }
+        }
+    }
+
+    void onJoin(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfJoinedEvent event) {
+        scoreboard(event.ctfId).join(event.participantEmail, event.participantPseudo);
+    }
+
+    void onLeave(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfLeftEvent event) {
+        scoreboard(event.ctfId).leave(event.participantEmail);
+    }
+
+    void onSolve(@Observes DefiSolvedEvent event) {
+        if (event.ctfId != null) {
+            Scoreboard scoreboard = scoreboard(event.ctfId);
+            for (String previousSolver : event.previousSolvers) {
+                Scoreboard.Entry adjusted = scoreboard.adjust(previousSolver, event.previousSolversDelta);
+                if (adjusted != null) {
+                    scoreHistory.record(event.ctfId, previousSolver, event.solvedAt, adjusted.score());
+                }
+            }
+            Scoreboard.Entry entry = scoreboard.addSolve(event.participantEmail, event.participantPseudo, event.points, event.solvedAt);
+            if (entry != null) {
+                scoreHistory.record(event.ctfId, event.participantEmail, event.solvedAt, entry.score());
+            }
+        }
+    }
+
+    // Membres de chaque classement, pour l'instantané
+    Map<Long, List<Scoreboard.Entry>> members() {
+        Map<Long, List<Scoreboard.Entry>> members = new HashMap<>();
+        scoreboards.forEach((ctfId, scoreboard) -> members.put(ctfId, scoreboard.range(0, Integer.MAX_VALUE)));
+        return members;
+    }
+
+    public List<ScoreboardEntryResponse> top(Long ctfId, Integer top) {
+        int limit = top == null ? 10 : Math.max(1, Math.min(top, MAX_TOP));
+        Scoreboard scoreboard = scoreboards.get(ctfId);
+        if (scoreboard == null) {
+            return List.of();
+        }
+
+        List<ScoreboardEntryResponse> response = new ArrayList<>();
+        for (Scoreboard.Entry entry : scoreboard.top(limit)) {
+            response.add(new ScoreboardEntryResponse(response.size() + 1, entry.pseudo(), entry.score(), entry.lastSolveAt()));
+        }
+        return response;
+    }
+
+    public ScoreboardEntryResponse rankOf(Long ctfId, String participantEmail) {
+        Scoreboard scoreboard = scoreboards.get(ctfId);
+        Scoreboard.Standing standing = scoreboard == null ? null : scoreboard.standingOf(participantEmail);
+        if (standing == null) {
+            throw new ApiException(404, "NOT_IN_SCOREBOARD", "Vous n'êtes pas classé dans ce CTF.");
+        }
+        Scoreboard.Entry entry = standing.entry();
+        return new ScoreboardEntryResponse(standing.rank(), entry.pseudo(), entry.score(), entry.lastSolveAt());
+    }
+
+    // Participation en cours (sans départ) au CTF
+    public boolean isMember(Long ctfId, String participantEmail) {
+        Scoreboard scoreboard = scoreboards.get(ctfId);
+        return scoreboard != null && scoreboard.contains(participantEmail);
+    }
+
+    Scoreboard scoreboard(Long ctfId) {
+        return scoreboards.computeIfAbsent(ctfId, id -> new Scoreboard());
+    }
+}
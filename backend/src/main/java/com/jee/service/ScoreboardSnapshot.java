@@ -0,0 +1,403 @@
+package com.jee.service;
+
+import com.jee.repository.ParticipationRepository;
+import com.jee.repository.ResolutionDefiRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.Tuple;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantané binaire des résolutions acceptées et des inscriptions aux classements, réécrit à intervalle
+ * régulier. Au démarrage, il remplace la relecture de defi_resolutions : on le charge, puis on n'applique
+ * que la fin du journal des soumissions (séquence supérieure à celle de l'instantané), les inscriptions
+ * et les départs postérieurs. FlagService, DefiScoring, DefiPodium, ScoreboardService et ScoreHistory se construisent
+ * ensuite à partir de la même liste de résolutions. Sans instantané valide, la liste est relue en base.
+ *
+ * Format : en-tête (magic, version, date, séquence du journal, séquence écrite en base), table des chaînes,
+ * résolutions, membres de chaque classement, puis CRC32C de l'ensemble.
+ */
+@ApplicationScoped
+public class ScoreboardSnapshot {
+
+    private static final Logger LOG = Logger.getLogger(ScoreboardSnapshot.class);
+
+    private static final int MAGIC = 0x43544653;
+    private static final int VERSION = 1;
+    private static final int EXISTENCE_CHUNK = 1000;
+    // Inscriptions relues en base depuis la prise de l'instantané, avec une marge pour les transactions en cours
+    private static final Duration JOIN_MARGIN = Duration.ofMinutes(1);
+
+    record Join(Long ctfId, String email, String pseudo) {
+    }
+
+    private record SolveKey(Long defiId, String email) {
+    }
+
+    private record MemberKey(Long ctfId, String email) {
+    }
+
+    private record Loaded(Instant takenAt, long journalSeq, long persistedSeq, List<SolveFact> solves, List<Join> joins) {
+    }
+
+    // Verrou partagé par les résolutions (journal, file d'écriture, liste), exclusif le temps de capturer un instantané
+    private final ReentrantReadWriteLock checkpoint = new ReentrantReadWriteLock();
+    private final ConcurrentLinkedQueue<SolveFact> solves = new ConcurrentLinkedQueue<>();
+
+    // Utilisés seulement pendant le démarrage
+    private volatile List<Join> bootJoins = List.of();
+    private volatile List<SolveFact> bootMissing = List.of();
+
+    @Inject
+    SubmissionJournal submissionJournal;
+    @Inject
+    SolveRecorder solveRecorder;
+    @Inject
+    ScoreboardService scoreboardService;
+    @Inject
+    ResolutionDefiRepository resolutionDefiRepository;
+    @Inject
+    ParticipationRepository participationRepository;
+
+    @ConfigProperty(name = "ctf.scoreboard.snapshot.file", defaultValue = "data/journal/scoreboards.snapshot")
+    Path file;
+
+    // Après l'ouverture du journal, avant DefiScoring et les autres chargements
+    @ActivateRequestContext
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 100) StartupEvent event) {
+        long started = System.nanoTime();
+        Map<SolveKey, SolveFact> facts = new LinkedHashMap<>();
+        List<Join> joins = new ArrayList<>();
+        long fromSeq = 0;
+        long persistedSeq = 0;
+
+        Loaded loaded = read();
+        if (loaded != null && loaded.journalSeq() > submissionJournal.lastSeq()) {
+            LOG.warnf("Instantané %s plus récent que le journal, ignoré", file);
+            loaded = null;
+        }
+        if (loaded != null) {
+            for (SolveFact solve : loaded.solves()) {
+                facts.putIfAbsent(new SolveKey(solve.defiId(), solve.email()), solve);
+            }
+            joins.addAll(loaded.joins());
+            addJoins(joins, participationRepository.findParticipantKeysSince(loaded.takenAt().minus(JOIN_MARGIN)));
+            removeLeaves(joins, participationRepository.findLeftKeysSince(loaded.takenAt().minus(JOIN_MARGIN)));
+            fromSeq = loaded.journalSeq();
+            persistedSeq = loaded.persistedSeq();
+        } else {
+            loadFromDatabase(facts, joins);
+        }
+
+        try {
+            submissionJournal.replay(fromSeq, entry -> {
+                if (entry.type() == SubmissionJournal.SOLVE) {
+                    facts.putIfAbsent(new SolveKey(entry.defiId(), entry.email()), new SolveFact(entry.defiId(),
+                            entry.ctfId(), entry.email(), entry.pseudo(), entry.at(), entry.ordre(), entry.seq()));
+                }
+            });
+        } catch (IOException e) {
+            LOG.errorf(e, "Lecture de la fin du journal impossible, les résolutions non écrites en base sont perdues");
+        }
+
+        // Seules les résolutions postérieures à la dernière écriture connue peuvent manquer en base
+        List<SolveFact> candidates = new ArrayList<>();
+        for (SolveFact solve : facts.values()) {
+            if (solve.journalSeq() < 0 || solve.journalSeq() > persistedSeq) {
+                candidates.add(solve);
+            }
+        }
+        bootMissing = missingInDatabase(candidates);
+        bootJoins = joins;
+        solves.addAll(facts.values());
+
+        LOG.infof("Classements reconstruits %s en %d ms : %d résolutions (%d à réécrire en base), %d inscriptions",
+                loaded != null ? "depuis l'instantané" : "depuis la base",
+                (System.nanoTime() - started) / 1_000_000, facts.size(), bootMissing.size(), joins.size());
+    }
+
+    private void loadFromDatabase(Map<SolveKey, SolveFact> facts, List<Join> joins) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Tuple solve : resolutionDefiRepository.findAllSolves()) {
+            Long defiId = solve.get("defiId", Long.class);
+            int count = counts.merge(defiId, 1, Integer::sum);
+            Integer ordre = solve.get("ordre", Integer.class);
+            String email = solve.get("email", String.class);
+            facts.putIfAbsent(new SolveKey(defiId, email), new SolveFact(defiId, solve.get("ctfId", Long.class), email,
+                    solve.get("pseudo", String.class), solve.get("solvedAt", Instant.class), ordre == null ? count : ordre, 0));
+        }
+        addJoins(joins, participationRepository.findParticipantKeys());
+    }
+
+    private List<SolveFact> missingInDatabase(List<SolveFact> candidates) {
+        List<SolveFact> missing = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += EXISTENCE_CHUNK) {
+            List<SolveFact> chunk = candidates.subList(from, Math.min(candidates.size(), from + EXISTENCE_CHUNK));
+            Set<Long> defiIds = new HashSet<>();
+            Set<String> emails = new HashSet<>();
+            for (SolveFact solve : chunk) {
+                defiIds.add(solve.defiId());
+                emails.add(solve.email());
+            }
+            Set<SolveKey> existing = new HashSet<>();
+            for (Tuple key : resolutionDefiRepository.findSolveKeys(defiIds, emails)) {
+                existing.add(new SolveKey(key.get("defiId", Long.class), key.get("email", String.class)));
+            }
+            for (SolveFact solve : chunk) {
+                if (!existing.contains(new SolveKey(solve.defiId(), solve.email()))) {
+                    missing.add(solve);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static void addJoins(List<Join> joins, List<Tuple> participants) {
+        for (Tuple participant : participants) {
+            joins.add(new Join(participant.get("ctfId", Long.class), participant.get("email", String.class),
+                    participant.get("pseudo", String.class)));
+        }
+    }
+
+    private static void removeLeaves(List<Join> joins, List<Tuple> leaves) {
+        Set<MemberKey> left = new HashSet<>();
+        for (Tuple leave : leaves) {
+            left.add(new MemberKey(leave.get("ctfId", Long.class), leave.get("email", String.class)));
+        }
+        joins.removeIf(join -> left.contains(new MemberKey(join.ctfId(), join.email())));
+    }
+
+    Lock solveLock() {
+        return checkpoint.readLock();
+    }
+
+    // Appelé sous solveLock(), après la mise en file de la résolution
+    void recordSolve(SolveFact solve) {
+        solves.add(solve);
+    }
+
+    Collection<SolveFact> solves() {
+        return solves;
+    }
+
+    List<Join> bootJoins() {
+        return bootJoins;
+    }
+
+    List<SolveFact> bootMissing() {
+        return bootMissing;
+    }
+
+    void bootCompleted() {
+        bootJoins = List.of();
+        bootMissing = List.of();
+    }
+
+    @Scheduled(every = "${ctf.scoreboard.snapshot.interval:30s}", delayed = "${ctf.scoreboard.snapshot.interval:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledWrite() {
+        write();
+    }
+
+    // Après la dernière écriture de SolveRecorder : l'instantané d'arrêt n'a plus rien à rattraper
+    void onStop(@Observes @Priority(Interceptor.Priority.PLATFORM_AFTER) ShutdownEvent event) {
+        write();
+    }
+
+    public synchronized void write() {
+        long journalSeq;
+        long persistedSeq;
+        List<SolveFact> captured;
+        Instant takenAt;
+        checkpoint.writeLock().lock();
+        try {
+            journalSeq = submissionJournal.lastSeq();
+            persistedSeq = solveRecorder.persistedWatermark(journalSeq);
+            captured = new ArrayList<>(solves);
+            takenAt = Instant.now();
+        } finally {
+            checkpoint.writeLock().unlock();
+        }
+        // Les inscriptions ne passent pas par le verrou : celles qui manqueraient sont relues en base au démarrage
+        Map<Long, List<Scoreboard.Entry>> members = scoreboardService.members();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile());
+                 CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut, 1 << 16), new CRC32C());
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(takenAt.toEpochMilli());
+                out.writeLong(journalSeq);
+                out.writeLong(persistedSeq);
+
+                Map<String, Integer> indexes = new HashMap<>();
+                List<String> strings = new ArrayList<>();
+                for (SolveFact solve : captured) {
+                    intern(indexes, strings, solve.email());
+                    intern(indexes, strings, solve.pseudo());
+                }
+                for (List<Scoreboard.Entry> entries : members.values()) {
+                    for (Scoreboard.Entry entry : entries) {
+                        intern(indexes, strings, entry.email());
+                        intern(indexes, strings, entry.pseudo());
+                    }
+                }
+                out.writeInt(strings.size());
+                for (String value : strings) {
+                    out.writeUTF(value);
+                }
+
+                out.writeInt(captured.size());
+                for (SolveFact solve : captured) {
+                    out.writeLong(solve.defiId());
+                    out.writeLong(solve.ctfId() == null ? -1 : solve.ctfId());
+                    out.writeInt(indexOf(indexes, solve.email()));
+                    out.writeInt(indexOf(indexes, solve.pseudo()));
+                    out.writeLong(solve.solvedAt().toEpochMilli());
+                    out.writeInt(solve.ordre());
+                    out.writeLong(solve.journalSeq());
+                }
+
+                out.writeInt(members.size());
+                for (Map.Entry<Long, List<Scoreboard.Entry>> board : members.entrySet()) {
+                    out.writeLong(board.getKey());
+                    out.writeInt(board.getValue().size());
+                    for (Scoreboard.Entry entry : board.getValue()) {
+                        out.writeInt(indexOf(indexes, entry.email()));
+                        out.writeInt(indexOf(indexes, entry.pseudo()));
+                    }
+                }
+
+                out.flush();
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            // Le fichier précédent reste valide jusqu'au remplacement
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf(e, "Echec de l'écriture de l'instantané des classements %s", file);
+            return;
+        }
+
+        // Les enregistrements jusqu'à persistedSeq sont en base et dans l'instantané : le journal n'en a plus besoin
+        try {
+            int released = submissionJournal.releaseUpTo(persistedSeq);
+            if (released > 0) {
+                LOG.infof("%d segments du journal des soumissions supprimés (séquence <= %d)", released, persistedSeq);
+            }
+        } catch (IOException e) {
+            LOG.warnf(e, "Suppression des anciens segments du journal impossible, nouvel essai au prochain instantané");
+        }
+    }
+
+    // null si le fichier est absent, tronqué ou corrompu
+    private Loaded read() {
+        try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16), new CRC32C());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOG.warnf("Instantané %s dans un format inconnu, ignoré", file);
+                return null;
+            }
+            Instant takenAt = Instant.ofEpochMilli(in.readLong());
+            long journalSeq = in.readLong();
+            long persistedSeq = in.readLong();
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+
+            int solveCount = in.readInt();
+            List<SolveFact> loadedSolves = new ArrayList<>(solveCount);
+            for (int i = 0; i < solveCount; i++) {
+                long defiId = in.readLong();
+                long ctfId = in.readLong();
+                String email = stringAt(strings, in.readInt());
+                String pseudo = stringAt(strings, in.readInt());
+                Instant solvedAt = Instant.ofEpochMilli(in.readLong());
+                int ordre = in.readInt();
+                long seq = in.readLong();
+                loadedSolves.add(new SolveFact(defiId, ctfId < 0 ? null : ctfId, email, pseudo, solvedAt, ordre, seq));
+            }
+
+            int boardCount = in.readInt();
+            List<Join> loadedJoins = new ArrayList<>();
+            for (int i = 0; i < boardCount; i++) {
+                long ctfId = in.readLong();
+                int size = in.readInt();
+                for (int j = 0; j < size; j++) {
+                    loadedJoins.add(new Join(ctfId, stringAt(strings, in.readInt()), stringAt(strings, in.readInt())));
+                }
+            }
+
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                LOG.warnf("Instantané %s corrompu (CRC), ignoré", file);
+                return null;
+            }
+            return new Loaded(takenAt, journalSeq, persistedSeq, loadedSolves, loadedJoins);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf("Instantané %s illisible, ignoré : %s", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void intern(Map<String, Integer> indexes, List<String> strings, String value) {
+        if (value != null && !indexes.containsKey(value)) {
+            indexes.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> indexes, String value) {
+        return value == null ? -1 : indexes.get(value);
+    }
+
+    private static String stringAt(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+}
@@ -0,0 +1,143 @@
+package com.jee.service;
+
+import com.jee.DTO.scoreboard.ScoreboardEntryResponse;
+import com.jee.DTO.scoreboard.ScoreboardFrame;
+import com.jee.event.CtfJoinedEvent;
+import com.jee.event.CtfLeftEvent;
+import com.jee.event.DefiSolvedEvent;
+import com.jee.exceptionHandler.ApiException;
+import com.jee.repository.CtfRepository;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flux SSE des classements. Les participants dont la position a changé sont notés, puis à chaque tick
+ * une seule trame "delta" par CTF est publiée dans un BroadcastProcessor partagé par tous les abonnés.
+ * Chaque abonné ne garde que la trame la plus récente s'il lit moins vite qu'on ne publie : un trou
+ * dans les numéros de séquence indique au client de recharger le classement.
+ */
+@ApplicationScoped
+public class ScoreboardStream {
+
+    private static final class Channel {
+        final BroadcastProcessor<ScoreboardFrame> processor = BroadcastProcessor.create();
+        final Set<String> dirty = ConcurrentHashMap.newKeySet();
+        final AtomicLong seq = new AtomicLong();
+        final AtomicInteger subscribers = new AtomicInteger();
+        final Queue<DefiSolvedEvent> podium = new ConcurrentLinkedQueue<>();
+        // Un participant est sorti du classement : un delta ne sait pas le retirer, le client doit recharger
+        final AtomicBoolean reload = new AtomicBoolean();
+    }
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    @Inject
+    ScoreboardService scoreboardService;
+    @Inject
+    CtfRepository ctfRepository;
+
+    // Lecture en base : à appeler hors de la boucle d'événements (endpoint @Blocking)
+    public Multi<ScoreboardFrame> subscribe(Long ctfId, Integer top) {
+        // Vérifié une fois à l'abonnement : pas de canal pour un id inexistant
+        if (ctfRepository.findById(ctfId) == null) {
+            throw new ApiException(404, "CTF_NOT_FOUND", "CTF Introuvable avec l'id : " + ctfId);
+        }
+        Channel channel = channel(ctfId);
+        return Multi.createBy().concatenating().streams(
+                        Multi.createFrom().item(() -> snapshot(ctfId, channel, top)),
+                        channel.processor)
+                .onSubscription().invoke(() -> channel.subscribers.incrementAndGet())
+                .onTermination().invoke(() -> channel.subscribers.decrementAndGet())
+                .onOverflow().dropPreviousItems();
+    }
+
+    void onSolve(@Observes DefiSolvedEvent event) {
+        if (event.ctfId != null) {
+            Channel channel = channel(event.ctfId);
+            channel.dirty.add(event.participantEmail);
+            channel.dirty.addAll(event.previousSolvers);
+            if (event.ordre <= DefiPodium.SIZE) {
+                channel.podium.add(event);
+            }
+        }
+    }
+
+    void onJoin(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfJoinedEvent event) {
+        channel(event.ctfId).dirty.add(event.participantEmail);
+    }
+
+    void onLeave(@Observes(during = TransactionPhase.AFTER_SUCCESS) CtfLeftEvent event) {
+        channel(event.ctfId).reload.set(true);
+    }
+
+    @Scheduled(every = "${ctf.scoreboard.stream.interval:500ms}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void publish() {
+        channels.forEach((ctfId, channel) -> {
+            // Les annonces de podium passent avant le delta du même tick
+            DefiSolvedEvent solve;
+            while ((solve = channel.podium.poll()) != null) {
+                if (channel.subscribers.get() > 0) {
+                    ScoreboardFrame frame = new ScoreboardFrame("podium", channel.seq.incrementAndGet(), scoreboardService.scoreboard(ctfId).size(),
+                            List.of(new ScoreboardEntryResponse(solve.ordre, solve.participantPseudo, solve.points, solve.solvedAt)));
+                    frame.defiId = solve.defiId;
+                    channel.processor.onNext(frame);
+                }
+            }
+
+            boolean reload = channel.reload.getAndSet(false);
+            if (reload) {
+                // Numéro sauté : le delta suivant, même vide, montre un trou au client
+                channel.seq.incrementAndGet();
+            }
+            if (channel.dirty.isEmpty() && !reload) {
+                return;
+            }
+            List<String> emails = new ArrayList<>();
+            for (String email : channel.dirty) {
+                if (channel.dirty.remove(email)) {
+                    emails.add(email);
+                }
+            }
+            if (channel.subscribers.get() == 0) {
+                return;
+            }
+
+            Scoreboard scoreboard = scoreboardService.scoreboard(ctfId);
+            List<ScoreboardEntryResponse> entries = new ArrayList<>(emails.size());
+            for (String email : emails) {
+                Scoreboard.Standing standing = scoreboard.standingOf(email);
+                if (standing != null) {
+                    Scoreboard.Entry entry = standing.entry();
+                    entries.add(new ScoreboardEntryResponse(standing.rank(), entry.pseudo(), entry.score(), entry.lastSolveAt()));
+                }
+            }
+            channel.processor.onNext(new ScoreboardFrame("delta", channel.seq.incrementAndGet(), scoreboard.size(), entries));
+        });
+    }
+
+    // Le numéro de séquence du snapshot est celui du dernier delta publié
+    private ScoreboardFrame snapshot(Long ctfId, Channel channel, Integer top) {
+        long seq = channel.seq.get();
+        List<ScoreboardEntryResponse> entries = scoreboardService.top(ctfId, top);
+        return new ScoreboardFrame("snapshot", seq, scoreboardService.scoreboard(ctfId).size(), entries);
+    }
+
+    private Channel channel(Long ctfId) {
+        return channels.computeIfAbsent(ctfId, id -> new Channel());
+    }
+}
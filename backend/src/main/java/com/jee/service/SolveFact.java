@@ -0,0 +1,7 @@
+package com.jee.service;
+
+import java.time.Instant;
+
+// Une résolution acceptée, telle que la reconstruisent les classements ; journalSeq vaut 0 si elle vient de la base
+record SolveFact(Long defiId, Long ctfId, String email, String pseudo, Instant solvedAt, int ordre, long journalSeq) {
+}
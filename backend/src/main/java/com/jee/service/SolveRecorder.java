@@ -0,0 +1,186 @@
+package com.jee.service;
+
+import com.jee.repository.ResolutionDefiRepository;
+import com.jee.repository.UserRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ecriture asynchrone des résolutions acceptées par FlagService : la file est vidée à intervalle
+ * court, chaque lot est inséré en une transaction (insertions groupées par JDBC) et les scores
+ * des participants sont incrémentés en un seul UPDATE, plus un par défi dont la valeur a baissé.
+ */
+@ApplicationScoped
+public class SolveRecorder {
+
+    private static final Logger LOG = Logger.getLogger(SolveRecorder.class);
+    private static final int BATCH_SIZE = 500;
+
+    public record Solve(Long defiId, String participantEmail, int points, Instant solvedAt, int ordre, long journalSeq) {
+    }
+
+    private final ConcurrentLinkedDeque<Solve> queue = new ConcurrentLinkedDeque<>();
+    // Séquences du journal des résolutions en file ou en cours d'écriture
+    private final ConcurrentSkipListSet<Long> pendingSeqs = new ConcurrentSkipListSet<>();
+
+    @Inject
+    ResolutionDefiRepository resolutionDefiRepository;
+    @Inject
+    UserRepository userRepository;
+    @Inject
+    DefiScoring defiScoring;
+
+    public void enqueue(Solve solve) {
+        if (solve.journalSeq() > 0) {
+            pendingSeqs.add(solve.journalSeq());
+        }
+        queue.addLast(solve);
+    }
+
+    // Plus grande séquence du journal (au plus upTo) dont toutes les résolutions sont en base
+    long persistedWatermark(long upTo) {
+        Long firstPending = pendingSeqs.isEmpty() ? null : pendingSeqs.first();
+        return firstPending == null ? upTo : Math.min(upTo, firstPending - 1);
+    }
+
+    @Scheduled(every = "${defi.solves.flush-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        flush();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    public synchronized void flush() {
+        List<Solve> batch;
+        while (!(batch = drain()).isEmpty()) {
+            List<Solve> retry = new ArrayList<>();
+            List<Solve> rejected = new ArrayList<>();
+            RuntimeException failure = write(batch, retry, rejected);
+
+            for (Solve solve : rejected) {
+                pendingSeqs.remove(solve.journalSeq());
+                // Elle reste comptée en mémoire (classements, résolveurs du défi) jusqu'au prochain redémarrage
+                LOG.errorf("Résolution écartée, refusée par la base : défi %d, participant %s, séquence du journal %d",
+                        solve.defiId(), solve.participantEmail(), solve.journalSeq());
+            }
+            if (!retry.isEmpty()) {
+                // Base indisponible : on remet ces résolutions en tête de file, dans l'ordre, pour le prochain passage
+                for (int i = retry.size() - 1; i >= 0; i--) {
+                    queue.addFirst(retry.get(i));
+                }
+                LOG.warnf(failure, "Echec de l'écriture de %d résolutions, nouvel essai au prochain passage", retry.size());
+                return;
+            }
+        }
+    }
+
+    /*
+     * Ecrit le lot. Une erreur passagère (connexion, verrou, ressources) remet tout le lot dans retry ;
+     * une erreur due aux données coupe le lot en deux jusqu'à isoler les lignes fautives, mises dans rejected,
+     * pour qu'une seule ligne impossible à écrire ne bloque pas toutes les suivantes.
+     */
+    private RuntimeException write(List<Solve> batch, List<Solve> retry, List<Solve> rejected) {
+        try {
+            // Compteurs mis à jour seulement après le commit
+            writeBatch(batch).forEach(defiScoring::markPersisted);
+            for (Solve solve : batch) {
+                pendingSeqs.remove(solve.journalSeq());
+            }
+            return null;
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                retry.addAll(batch);
+                return e;
+            }
+            if (batch.size() == 1) {
+                rejected.add(batch.get(0));
+                return e;
+            }
+            int middle = batch.size() / 2;
+            RuntimeException first = write(batch.subList(0, middle), retry, rejected);
+            RuntimeException second = write(batch.subList(middle, batch.size()), retry, rejected);
+            return first != null ? first : second != null ? second : e;
+        }
+    }
+
+    // Seule une erreur SQL avec un SQLSTATE hors des classes 08 (connexion), 40 (sérialisation, interblocage),
+    // 53 (ressources), 57 (arrêt) tient aux lignes du lot ; une erreur sans SQLException (expiration de la
+    // transaction, rollback JTA) ou sans SQLSTATE (pool de connexions) est réessayée
+    static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                if (state == null || state.length() < 2) {
+                    return true;
+                }
+                return switch (state.substring(0, 2)) {
+                    case "08", "40", "53", "57" -> true;
+                    default -> false;
+                };
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Pour chaque défi du lot : la valeur passe de value(n) à value(n + k) (n résolutions déjà en base,
+     * k nouvelles). Les n anciens résolveurs reçoivent l'écart en un seul UPDATE, avant l'insertion
+     * des nouvelles lignes, et les nouveaux résolveurs la valeur finale.
+     */
+    @Transactional
+    Map<Long, Integer> writeBatch(List<Solve> batch) {
+        Map<Long, List<Solve>> byDefi = new LinkedHashMap<>();
+        for (Solve solve : batch) {
+            byDefi.computeIfAbsent(solve.defiId(), id -> new ArrayList<>()).add(solve);
+        }
+
+        Map<String, Integer> scores = new HashMap<>();
+        Map<Long, Integer> written = new HashMap<>();
+        for (Map.Entry<Long, List<Solve>> defi : byDefi.entrySet()) {
+            Long defiId = defi.getKey();
+            List<Solve> solves = defi.getValue();
+            int before = defiScoring.persistedSolves(defiId);
+            int value = defiScoring.value(defiId, before + solves.size());
+            int delta = value - defiScoring.value(defiId, before);
+
+            if (before > 0 && delta != 0) {
+                userRepository.addScoreToSolvers(defiId, delta);
+                resolutionDefiRepository.updateDefiPoints(defiId, value);
+            }
+            for (Solve solve : solves) {
+                resolutionDefiRepository.persist(defiId, solve.participantEmail(), value, solve.solvedAt(), solve.ordre());
+                scores.merge(solve.participantEmail(), value, Integer::sum);
+            }
+            written.put(defiId, solves.size());
+        }
+        resolutionDefiRepository.flush();
+        userRepository.addScores(scores);
+        return written;
+    }
+
+    private List<Solve> drain() {
+        List<Solve> batch = new ArrayList<>();
+        Solve solve;
+        while (batch.size() < BATCH_SIZE && (solve = queue.pollFirst()) != null) {
+            batch.add(solve);
+        }
+        return batch;
+    }
+}
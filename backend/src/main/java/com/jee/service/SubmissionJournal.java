@@ -0,0 +1,355 @@
+package com.jee.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal des soumissions et résolutions, en ajout seul sur le disque local, hors du chemin d'écriture Postgres.
+ * Les segments sont des fichiers de taille fixe projetés en mémoire (MappedByteBuffer) et découpés en
+ * enregistrements de RECORD_SIZE octets ; quand un segment est plein on passe au suivant.
+ * Chaque enregistrement commence par un CRC32C du reste : un enregistrement incomplet (arrêt brutal)
+ * est détecté et ignoré à la relecture. Les pages sont forcées sur le disque à intervalle régulier.
+ * Un segment fermé dont tous les enregistrements sont écrits en base et couverts par l'instantané des
+ * classements est supprimé (releaseUpTo), en gardant toujours les ctf.journal.retained-segments plus récents.
+ *
+ * Format d'un enregistrement (big-endian) :
+ *   0 crc32c (int) | 4 type (byte) | 5 correct (byte) | 8 séquence (long) | 16 instant ms (long)
+ *   24 defiId (long) | 32 ctfId (long, -1 si aucun) | 40 points (int) | 44 longueur email (short)
+ *   46 longueur pseudo (short) | 48 email (MAX_EMAIL octets) | 304 pseudo (MAX_PSEUDO octets)
+ *   368 ordre de résolution dans le défi (int, 0 pour une soumission)
+ */
+@ApplicationScoped
+public class SubmissionJournal {
+
+    private static final Logger LOG = Logger.getLogger(SubmissionJournal.class);
+
+    public static final byte SUBMIT = 1;
+    public static final byte SOLVE = 2;
+
+    static final int RECORD_SIZE = 384;
+    private static final int MAX_EMAIL = 256;
+    private static final int MAX_PSEUDO = 64;
+    private static final int EMAIL_OFFSET = 48;
+    private static final int PSEUDO_OFFSET = EMAIL_OFFSET + MAX_EMAIL;
+    private static final int ORDRE_OFFSET = PSEUDO_OFFSET + MAX_PSEUDO;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    public record Entry(byte type, boolean correct, long seq, Instant at, Long defiId, Long ctfId,
+                        int points, String email, String pseudo, int ordre) {
+    }
+
+    @ConfigProperty(name = "ctf.journal.dir", defaultValue = "data/journal")
+    Path directory;
+
+    @ConfigProperty(name = "ctf.journal.segment-records", defaultValue = "65536")
+    int segmentRecords;
+
+    // Segments fermés gardés quoi qu'il arrive ; au moins un, qui porte la dernière séquence si le segment courant est vide
+    @ConfigProperty(name = "ctf.journal.retained-segments", defaultValue = "2")
+    int retainedSegments;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+
+    private int segmentIndex;
+    private MappedByteBuffer segment;
+    private long nextSeq = 1;
+
+    // Avant les autres observateurs du démarrage : la position d'écriture doit être connue avant la première soumission
+    synchronized void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent event) throws IOException {
+        Files.createDirectories(directory);
+        List<Integer> indexes = segmentIndexes();
+        segmentIndex = indexes.isEmpty() ? 1 : indexes.getLast();
+        segment = map(segmentIndex);
+
+        // On reprend après le dernier enregistrement valide du dernier segment
+        int position = 0;
+        while (position + RECORD_SIZE <= segment.capacity() && read(segment, position) != null) {
+            position += RECORD_SIZE;
+        }
+        segment.position(position);
+
+        // Dernier segment vide (arrêt juste après un changement de segment) : la séquence est celle du dernier
+        // enregistrement valide des segments précédents, sinon les nouvelles séquences reprendraient à 1
+        if (position > 0) {
+            nextSeq = read(segment, position - RECORD_SIZE).seq() + 1;
+        } else {
+            for (int i = indexes.size() - 2; i >= 0; i--) {
+                long last = lastSeq(indexes.get(i));
+                if (last > 0) {
+                    nextSeq = last + 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    synchronized void onStop(@Observes ShutdownEvent event) {
+        force();
+    }
+
+    @Scheduled(every = "${ctf.journal.force-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    synchronized void force() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    public void submission(Long defiId, Long ctfId, String email, boolean correct) {
+        append(SUBMIT, correct, defiId, ctfId, 0, email, null, Instant.now(), 0);
+    }
+
+    // Numéro de séquence de l'enregistrement, -1 s'il n'a pas pu être écrit
+    public long solve(Long defiId, Long ctfId, String email, String pseudo, int points, Instant solvedAt, int ordre) {
+        return append(SOLVE, true, defiId, ctfId, points, email, pseudo, solvedAt, ordre);
+    }
+
+    public synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    // Une erreur d'écriture du journal ne doit pas faire échouer la soumission
+    private synchronized long append(byte type, boolean correct, Long defiId, Long ctfId, int points,
+                                     String email, String pseudo, Instant at, int ordre) {
+        if (segment == null) {
+            return -1;
+        }
+        try {
+            if (segment.remaining() < RECORD_SIZE) {
+                segment.force();
+                segmentIndex++;
+                segment = map(segmentIndex);
+            }
+
+            byte[] emailBytes = truncate(email, MAX_EMAIL);
+            byte[] pseudoBytes = truncate(pseudo, MAX_PSEUDO);
+            long seq = nextSeq++;
+            Arrays.fill(scratch.array(), (byte) 0);
+            scratch.clear();
+            scratch.putInt(0)
+                    .put(type)
+                    .put((byte) (correct ? 1 : 0))
+                    .putShort((short) 0)
+                    .putLong(seq)
+                    .putLong(at.toEpochMilli())
+                    .putLong(defiId)
+                    .putLong(ctfId == null ? -1 : ctfId)
+                    .putInt(points)
+                    .putShort((short) emailBytes.length)
+                    .putShort((short) pseudoBytes.length)
+                    .put(emailBytes)
+                    .position(PSEUDO_OFFSET);
+            scratch.put(pseudoBytes);
+            scratch.putInt(ORDRE_OFFSET, ordre);
+            scratch.putInt(0, checksum(scratch));
+
+            scratch.clear();
+            segment.put(scratch);
+            return seq;
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf(e, "Echec de l'écriture dans le journal des soumissions");
+            return -1;
+        }
+    }
+
+    // Parcourt tous les enregistrements valides, segment par segment, dans l'ordre d'écriture
+    public ReplayStats replay(Consumer<Entry> consumer) throws IOException {
+        return replay(0, consumer);
+    }
+
+    // Seulement les enregistrements de séquence > afterSeq ; les segments entièrement antérieurs ne sont pas lus
+    public ReplayStats replay(long afterSeq, Consumer<Entry> consumer) throws IOException {
+        long lastSeq;
+        synchronized (this) {
+            force();
+            lastSeq = nextSeq - 1;
+        }
+
+        ReplayStats stats = new ReplayStats();
+        List<Integer> indexes = segmentIndexes();
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            if (i + 1 < indexes.size() && firstSeq(indexes.get(i + 1)) <= afterSeq + 1) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int position = 0; position + RECORD_SIZE <= buffer.capacity(); position += RECORD_SIZE) {
+                    if (buffer.get(position + 4) == 0) {
+                        break; // fin des données du segment
+                    }
+                    Entry entry = read(buffer, position);
+                    if (entry == null) {
+                        stats.corrupted++;
+                        continue;
+                    }
+                    if (entry.seq() > lastSeq) {
+                        return stats;
+                    }
+                    if (entry.seq() <= afterSeq) {
+                        continue;
+                    }
+                    stats.records++;
+                    consumer.accept(entry);
+                }
+            } catch (NoSuchFileException e) {
+                // Supprimé par releaseUpTo pendant la relecture : tout y était déjà écrit en base
+            }
+        }
+        return stats;
+    }
+
+    /*
+     * Rétention : supprime, du plus ancien au plus récent, les segments fermés dont tous les enregistrements ont une
+     * séquence <= seq, hors des retainedSegments derniers segments fermés. Le segment courant n'est jamais supprimé.
+     */
+    public int releaseUpTo(long seq) throws IOException {
+        int current;
+        synchronized (this) {
+            current = segmentIndex;
+        }
+        List<Integer> closed = segmentIndexes().stream().filter(index -> index < current).toList();
+        int deleted = 0;
+        for (int i = 0; i < closed.size() - Math.max(1, retainedSegments); i++) {
+            // Le segment suivant commence après le dernier enregistrement de celui-ci
+            if (firstSeq(closed.get(i + 1)) > seq + 1) {
+                break;
+            }
+            Files.deleteIfExists(segmentPath(closed.get(i)));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    // Séquence du premier enregistrement d'un segment (Long.MAX_VALUE s'il est illisible)
+    private long firstSeq(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+            if (channel.size() < RECORD_SIZE) {
+                return Long.MAX_VALUE;
+            }
+            Entry first = read(channel.map(FileChannel.MapMode.READ_ONLY, 0, RECORD_SIZE), 0);
+            return first == null ? Long.MAX_VALUE : first.seq();
+        }
+    }
+
+    // Séquence du dernier enregistrement valide d'un segment, 0 s'il n'en contient aucun
+    private long lastSeq(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long last = 0;
+            for (int position = 0; position + RECORD_SIZE <= buffer.capacity(); position += RECORD_SIZE) {
+                if (buffer.get(position + 4) == 0) {
+                    break;
+                }
+                Entry entry = read(buffer, position);
+                if (entry != null) {
+                    last = entry.seq();
+                }
+            }
+            return last;
+        }
+    }
+
+    public static final class ReplayStats {
+        public long records;
+        public long corrupted;
+    }
+
+    // null si l'enregistrement est vide ou si son CRC ne correspond pas
+    private static Entry read(ByteBuffer buffer, int position) {
+        ByteBuffer record = buffer.slice(position, RECORD_SIZE);
+        byte type = record.get(4);
+        if (type == 0 || record.getInt(0) != checksum(record)) {
+            return null;
+        }
+        int emailLength = record.getShort(44);
+        int pseudoLength = record.getShort(46);
+        if (emailLength < 0 || emailLength > MAX_EMAIL || pseudoLength < 0 || pseudoLength > MAX_PSEUDO) {
+            return null;
+        }
+        long ctfId = record.getLong(32);
+        return new Entry(
+                type,
+                record.get(5) == 1,
+                record.getLong(8),
+                Instant.ofEpochMilli(record.getLong(16)),
+                record.getLong(24),
+                ctfId < 0 ? null : ctfId,
+                record.getInt(40),
+                new String(bytes(record, EMAIL_OFFSET, emailLength), StandardCharsets.UTF_8),
+                pseudoLength == 0 ? null : new String(bytes(record, PSEUDO_OFFSET, pseudoLength), StandardCharsets.UTF_8),
+                record.getInt(ORDRE_OFFSET));
+    }
+
+    private static int checksum(ByteBuffer record) {
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(record.slice(4, RECORD_SIZE - 4));
+        return (int) crc32c.getValue();
+    }
+
+    private static byte[] bytes(ByteBuffer record, int offset, int length) {
+        byte[] bytes = new byte[length];
+        record.get(offset, bytes);
+        return bytes;
+    }
+
+    private static byte[] truncate(String value, int max) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= max) {
+            return bytes;
+        }
+        byte[] truncated = new byte[max];
+        System.arraycopy(bytes, 0, truncated, 0, max);
+        return truncated;
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private List<Integer> segmentIndexes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
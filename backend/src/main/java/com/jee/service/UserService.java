@@ -1,5 +1,6 @@
 package com.jee.service;
 
+import com.jee.DTO.pagination.PageRequest;
 import com.jee.DTO.user.ParticipantInfoPublicResponse;
 import com.jee.DTO.user.UserInfoAdminResponse;
 import com.jee.DTO.user.UserPublicDetails;
@@ -7,13 +8,12 @@ import com.jee.entity.Organisateur;
 import com.jee.entity.Participant;
 import com.jee.entity.User;
 import com.jee.exceptionHandler.ApiException;
+import com.jee.repository.KeysetPage;
 import com.jee.repository.UserRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
-import java.util.List;
-
 @ApplicationScoped
 public class UserService {
 
@@ -34,10 +34,10 @@ public class UserService {
         user.setBanDate(java.time.Instant.now());
     }
 
-    public List<UserInfoAdminResponse> getAllUsersForAdmin() {
-        List<User> users = userRepository.findAllUsers();
+    public KeysetPage<UserInfoAdminResponse> getAllUsersForAdmin(PageRequest page) {
+        KeysetPage<User> users = userRepository.findUsersPage(page);
 
-        return users.stream().map(user -> {
+        return users.map(user -> {
             UserInfoAdminResponse response = new UserInfoAdminResponse();
             response.email = user.getEmail();
             response.pseudo = user.getPseudo();
@@ -46,32 +46,32 @@ public class UserService {
             response.banReason = user.getBanReason();
             response.banDate = user.getBanDate() != null ? user.getBanDate().toString() : null;
             return response;
-        }).toList();
+        });
     }
 
-    public List<ParticipantInfoPublicResponse> getAllUsersForPublic() {
-        List<Participant> users = userRepository.findAllParticipantUsers();
+    public KeysetPage<ParticipantInfoPublicResponse> getAllUsersForPublic(PageRequest page) {
+        KeysetPage<Participant> users = userRepository.findParticipantsPage(page);
 
-        if (users.isEmpty()) {
+        if (users.items.isEmpty() && page.cursor == null) {
             throw new ApiException(404, "NO_PARTICIPANTS_FOUND", "Aucun participant trouvé");
         } // Erreur de changement
 
-        return users.stream().map(user -> {
+        return users.map(user -> {
             ParticipantInfoPublicResponse response = new ParticipantInfoPublicResponse();
             response.pseudo = user.getPseudo();
             response.score = user.getScore();
             return response;
-        }).toList();
+        });
     }
 
-    public List<UserPublicDetails> getAllOrganisateurs() {
-        List<Organisateur> users = userRepository.findAllOrganisateurUsers();
+    public KeysetPage<UserPublicDetails> getAllOrganisateurs(PageRequest page) {
+        KeysetPage<Organisateur> users = userRepository.findOrganisateursPage(page);
 
-        return users.stream().map(user -> {
+        return users.map(user -> {
             UserPublicDetails response = new UserPublicDetails();
             response.pseudo = user.getPseudo();
             response.email = user.getEmail();
             return response;
-        }).toList();
+        });
     }
 }
@@ -0,0 +1,89 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CtfSearchIndexTest {
+
+    @Test
+    void testTokenizeFoldsAccentsAndDropsStopWords() {
+        assertEquals(List.of("securite", "reseau", "oeuvre", "lyon"),
+                CtfSearchIndex.tokenize("Sécurité du Réseau : l'œuvre à Lyon"));
+        assertEquals(List.of(), CtfSearchIndex.tokenize("   "));
+        assertEquals(List.of(), CtfSearchIndex.tokenize(null));
+    }
+
+    @Test
+    void testSearchIsAccentInsensitive() {
+        CtfSearchIndex index = new CtfSearchIndex();
+        index.index(1L, "Défi réseau", null, "Paris");
+        index.index(2L, "Crypto", "Chiffrement", "Lyon");
+
+        assertEquals(List.of(1L), index.search("reseau", 10));
+        assertEquals(List.of(1L), index.search("RÉSEAU", 10));
+    }
+
+    @Test
+    void testTitleMatchRanksAboveDescriptionMatch() {
+        CtfSearchIndex index = new CtfSearchIndex();
+        index.index(1L, "Forensics", "Analyse de mémoire et web", "Lille");
+        index.index(2L, "Web", "Injections et XSS", "Lille");
+        index.index(3L, "Pwn", "Exploitation binaire", "Nantes");
+
+        assertEquals(List.of(2L, 1L), index.search("web", 10));
+    }
+
+    @Test
+    void testRareTermWeighsMoreThanCommonTerm() {
+        CtfSearchIndex index = new CtfSearchIndex();
+        index.index(1L, "Crypto", "Paris", null);
+        index.index(2L, "Reverse", "Paris", null);
+        index.index(3L, "Stegano", "Paris", null);
+        index.index(4L, "Misc", "Lyon", null);
+
+        // "lyon" n'apparaît qu'une fois : le document 4 passe devant ceux qui ne partagent que "paris"
+        assertEquals(4L, index.search("paris lyon", 10).get(0));
+    }
+
+    @Test
+    void testLimitKeepsBestResults() {
+        CtfSearchIndex index = new CtfSearchIndex();
+        index.index(1L, "Web", null, null);
+        index.index(2L, "Web web", "web", null);
+        index.index(3L, "Crypto", "web", null);
+
+        List<Long> top = index.search("web", 2);
+        assertEquals(2, top.size());
+        assertEquals(2L, top.get(0));
+    }
+
+    @Test
+    void testRemoveAndReindex() {
+        CtfSearchIndex index = new CtfSearchIndex();
+        index.index(1L, "Web", null, null);
+        index.index(2L, "Crypto", null, null);
+
+        index.remove(1L);
+        assertTrue(index.search("web", 10).isEmpty());
+
+        // Réindexer remplace les anciens termes
+        index.index(2L, "Reverse", null, null);
+        assertTrue(index.search("crypto", 10).isEmpty());
+        assertEquals(List.of(2L), index.search("reverse", 10));
+
+        index.remove(2L);
+        assertTrue(index.search("reverse", 10).isEmpty());
+    }
+
+    @Test
+    void testUnknownTermReturnsNothing() {
+        CtfSearchIndex index = new CtfSearchIndex();
+        assertTrue(index.search("web", 10).isEmpty());
+        index.index(1L, "Web", null, null);
+        assertTrue(index.search("inconnu", 10).isEmpty());
+    }
+}
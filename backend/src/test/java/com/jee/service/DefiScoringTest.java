@@ -0,0 +1,72 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefiScoringTest {
+
+    private static int value(int points, int pointsMin, int decroissance, int solveCount) {
+        return DefiScoring.value(new DefiScoring.Params(points, pointsMin, decroissance), solveCount);
+    }
+
+    @Test
+    void testFirstSolverGetsFullPoints() {
+        assertEquals(500, value(500, 100, 10, 0));
+        assertEquals(500, value(500, 100, 10, 1));
+    }
+
+    @Test
+    void testParabolicDecay() {
+        // 500 - 400 * (n - 1)² / 100
+        assertEquals(496, value(500, 100, 10, 2));
+        assertEquals(400, value(500, 100, 10, 6));
+        assertEquals(176, value(500, 100, 10, 10));
+    }
+
+    @Test
+    void testMinimumReachedAfterDecroissanceSolves() {
+        assertEquals(100, value(500, 100, 10, 11));
+        assertEquals(100, value(500, 100, 10, 12));
+        assertEquals(100, value(500, 100, 10, 1_000_000));
+        assertEquals(100, value(500, 100, 10, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testMinimumIsExactForAwkwardParameters() {
+        // En double, (1 - 8) / 81 * 81 + 8 vaut 1.0000000000000009 : l'arrondi au-dessus donnait 2
+        assertEquals(1, value(8, 1, 9, 10));
+        for (int points = 1; points <= 600; points += 7) {
+            for (int decroissance = 1; decroissance <= 40; decroissance++) {
+                int pointsMin = points / 3;
+                assertEquals(pointsMin, value(points, pointsMin, decroissance, decroissance + 1));
+            }
+        }
+    }
+
+    @Test
+    void testValueNeverIncreasesAndStaysInBounds() {
+        int previous = value(1000, 50, 37, 1);
+        for (int solveCount = 2; solveCount <= 60; solveCount++) {
+            int current = value(1000, 50, 37, solveCount);
+            assertTrue(current <= previous, "hausse à " + solveCount);
+            assertTrue(current >= 50 && current <= 1000);
+            previous = current;
+        }
+    }
+
+    @Test
+    void testWithoutDecayValueIsConstant() {
+        assertEquals(300, value(300, 300, 0, 1));
+        assertEquals(300, value(300, 300, 0, 500));
+    }
+
+    @Test
+    void testLargeDecroissanceDoesNotOverflow() {
+        int decroissance = 2_000_000_000;
+        assertEquals(1_000_000, value(1_000_000, 0, decroissance, 2));
+        assertEquals(750_000, value(1_000_000, 0, decroissance, decroissance / 2 + 1));
+        assertEquals(0, value(1_000_000, 0, decroissance, decroissance + 1));
+    }
+}
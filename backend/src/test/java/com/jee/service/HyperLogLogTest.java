@@ -0,0 +1,78 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.offer(HyperLogLog.hash("visiteur-" + i));
+        }
+        return sketch;
+    }
+
+    private static void assertWithin(long expected, long actual, double relativeError) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error <= relativeError, "estimation " + actual + " pour " + expected + " (erreur " + error + ")");
+    }
+
+    @Test
+    void testEmptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void testSmallCardinalityIsNearlyExact() {
+        // Comptage linéaire : très précis tant que la plupart des registres sont vides
+        assertWithin(100, sketchOf(0, 100).estimate(), 0.02);
+        assertWithin(1_000, sketchOf(0, 1_000).estimate(), 0.03);
+    }
+
+    @Test
+    void testLargeCardinalityStaysWithinErrorBound() {
+        // Erreur type 1,04 / sqrt(4096) ~ 1,6 % : 4 % laisse une marge de 2,5 écarts types
+        assertWithin(100_000, sketchOf(0, 100_000).estimate(), 0.04);
+        assertWithin(1_000_000, sketchOf(0, 1_000_000).estimate(), 0.04);
+    }
+
+    @Test
+    void testDuplicatesAreNotCounted() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long before = sketch.estimate();
+        for (int i = 0; i < 5_000; i++) {
+            assertFalse(sketch.offer(HyperLogLog.hash("visiteur-" + i)));
+        }
+        assertEquals(before, sketch.estimate());
+    }
+
+    @Test
+    void testMergeEstimatesTheUnion() {
+        HyperLogLog left = sketchOf(0, 60_000);
+        HyperLogLog right = sketchOf(40_000, 100_000);
+        left.merge(right.toBytes());
+
+        assertArrayEquals(sketchOf(0, 100_000).toBytes(), left.toBytes());
+        assertWithin(100_000, left.estimate(), 0.04);
+    }
+
+    @Test
+    void testBytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+        HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+        assertEquals(sketch.estimate(), copy.estimate());
+        assertArrayEquals(sketch.toBytes(), copy.toBytes());
+    }
+
+    @Test
+    void testRejectsInvalidSketch() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog().merge(null));
+    }
+}
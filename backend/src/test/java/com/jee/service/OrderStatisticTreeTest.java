@@ -0,0 +1,100 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatisticTreeTest {
+
+    private static OrderStatisticTree<Integer> treeOf(int... values) {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        for (int value : values) {
+            tree.insert(value);
+        }
+        return tree;
+    }
+
+    @Test
+    void testRankAndRangeFollowComparator() {
+        OrderStatisticTree<Integer> tree = treeOf(50, 10, 40, 20, 30);
+
+        assertEquals(5, tree.size());
+        assertEquals(0, tree.rank(10));
+        assertEquals(2, tree.rank(30));
+        assertEquals(4, tree.rank(50));
+        // Rang d'une valeur absente : nombre d'éléments plus petits
+        assertEquals(3, tree.rank(35));
+        assertEquals(List.of(10, 20, 30), tree.range(0, 3));
+        assertEquals(List.of(40, 50), tree.range(3, 10));
+        assertEquals(List.of(), tree.range(5, 10));
+    }
+
+    @Test
+    void testRankAndTopAfterRemovals() {
+        OrderStatisticTree<Integer> tree = treeOf(50, 10, 40, 20, 30);
+
+        assertTrue(tree.remove(10));
+        assertTrue(tree.remove(40));
+        assertFalse(tree.remove(40));
+        assertFalse(tree.remove(99));
+
+        assertEquals(3, tree.size());
+        assertEquals(0, tree.rank(20));
+        assertEquals(1, tree.rank(30));
+        assertEquals(2, tree.rank(50));
+        assertEquals(List.of(20, 30), tree.range(0, 2));
+        assertEquals(List.of(30, 50), tree.range(1, 5));
+    }
+
+    @Test
+    void testRemoveAndReinsertMovesElement() {
+        // Comme une résolution : l'entrée est retirée puis réinsérée avec sa nouvelle clé
+        OrderStatisticTree<int[]> tree = new OrderStatisticTree<>(Comparator.comparingInt((int[] e) -> -e[1]).thenComparingInt(e -> e[0]));
+        int[] a = {1, 100};
+        int[] b = {2, 200};
+        int[] c = {3, 300};
+        tree.insert(a);
+        tree.insert(b);
+        tree.insert(c);
+        assertEquals(2, tree.rank(a));
+
+        assertTrue(tree.remove(a));
+        int[] promoted = {1, 400};
+        tree.insert(promoted);
+
+        assertEquals(0, tree.rank(promoted));
+        assertEquals(3, tree.size());
+        assertEquals(List.of(promoted, c, b), tree.range(0, 3));
+    }
+
+    @Test
+    void testMatchesSortedSetUnderRandomOperations() {
+        Random random = new Random(42);
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            int value = random.nextInt(1_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else if (expected.add(value)) {
+                tree.insert(value);
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), tree.size());
+        assertEquals(sorted, tree.range(0, Integer.MAX_VALUE));
+        for (int i = 0; i < sorted.size(); i += 37) {
+            assertEquals(i, tree.rank(sorted.get(i)));
+            assertEquals(sorted.subList(i, Math.min(sorted.size(), i + 10)), tree.range(i, 10));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.jee.service;
+
+import com.jee.exceptionHandler.RateLimitedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long T0 = 1_000 * SECOND;
+
+    @Test
+    void testBurstThenRejected() {
+        // 60 par minute : un jeton par seconde, 5 d'affilée
+        RateLimiter limiter = new RateLimiter(60, Duration.ofMinutes(1), 5, 100);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("a", T0);
+        }
+        RateLimitedException rejected = assertThrows(RateLimitedException.class, () -> limiter.acquire("a", T0));
+        assertEquals(1, rejected.retryAfterSeconds);
+        assertEquals(429, rejected.status);
+    }
+
+    @Test
+    void testTokensComeBackAtEmissionRate() {
+        RateLimiter limiter = new RateLimiter(60, Duration.ofMinutes(1), 5, 100);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("a", T0);
+        }
+        // Un seul jeton revenu après une seconde
+        assertThrows(RateLimitedException.class, () -> limiter.acquire("a", T0 + SECOND / 2));
+        limiter.acquire("a", T0 + SECOND);
+        assertThrows(RateLimitedException.class, () -> limiter.acquire("a", T0 + SECOND));
+        // Seau de nouveau plein après 5 secondes
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("a", T0 + 6 * SECOND);
+        }
+    }
+
+    @Test
+    void testRetryAfterReflectsWait() {
+        // 6 par minute : un jeton toutes les 10 secondes
+        RateLimiter limiter = new RateLimiter(6, Duration.ofMinutes(1), 1, 100);
+        limiter.acquire("a", T0);
+        RateLimitedException rejected = assertThrows(RateLimitedException.class, () -> limiter.acquire("a", T0 + 3 * SECOND));
+        assertEquals(7, rejected.retryAfterSeconds);
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(60, Duration.ofMinutes(1), 1, 100);
+        limiter.acquire("a", T0);
+        assertThrows(RateLimitedException.class, () -> limiter.acquire("a", T0));
+        assertDoesNotThrow(() -> limiter.acquire("b", T0));
+    }
+
+    @Test
+    void testExpiredBucketsAreEvicted() {
+        RateLimiter limiter = new RateLimiter(60, Duration.ofMinutes(1), 5, 100);
+        limiter.acquire("a", T0);
+        limiter.acquire("b", T0 + 10 * SECOND);
+        limiter.evictExpired(T0 + 5 * SECOND);
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void testFullTableFailsOpenForNewKeys() {
+        RateLimiter limiter = new RateLimiter(60, Duration.ofMinutes(1), 1, 2);
+        limiter.acquire("a", T0);
+        limiter.acquire("b", T0);
+        // Table pleine de seaux actifs : une nouvelle clé passe sans être suivie
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> limiter.acquire("c", T0));
+        }
+        assertEquals(2, limiter.size());
+        assertThrows(RateLimitedException.class, () -> limiter.acquire("a", T0));
+        // Dès qu'un seau expire, la clé retrouve sa place
+        limiter.acquire("c", T0 + 2 * SECOND);
+        assertThrows(RateLimitedException.class, () -> limiter.acquire("c", T0 + 2 * SECOND));
+    }
+
+    @Test
+    void testClientAddressTrustsOnlyKnownProxies() {
+        Set<String> trusted = Set.of("10.0.0.1", "10.0.0.2");
+        // Connexion directe : l'en-tête est ignoré
+        assertEquals("203.0.113.9", RateLimits.clientAddress(trusted, "203.0.113.9", "198.51.100.1"));
+        // Sans en-tête, l'adresse du proxy
+        assertEquals("10.0.0.1", RateLimits.clientAddress(trusted, "10.0.0.1", null));
+        // La valeur ajoutée par le proxy, pas celle fournie par le client
+        assertEquals("198.51.100.7", RateLimits.clientAddress(trusted, "10.0.0.1", "1.2.3.4, 198.51.100.7"));
+        // Deux proxies de confiance en chaîne
+        assertEquals("198.51.100.7", RateLimits.clientAddress(trusted, "10.0.0.1", "1.2.3.4, 198.51.100.7, 10.0.0.2"));
+        assertEquals("10.0.0.2", RateLimits.clientAddress(Set.of(), "10.0.0.2", "198.51.100.7"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScoreSeriesTest {
+
+    private static final long T0 = 1_767_261_600_000L;
+
+    // Points rendus par downsample, en [instant, score]
+    private static List<List<Long>> points(ScoreSeries series, long from, long to, int buckets) {
+        List<List<Long>> points = new ArrayList<>();
+        series.downsample(from, to, buckets, (time, score) -> points.add(List.of(time, score)));
+        return points;
+    }
+
+    @Test
+    void testDeltasAcrossKeyframesDecodeExactly() {
+        // 200 points : plusieurs points de reprise (tous les 64), avec des baisses de score
+        ScoreSeries series = new ScoreSeries();
+        List<List<Long>> expected = new ArrayList<>();
+        long score = 0;
+        for (int i = 0; i < 200; i++) {
+            score += i % 5 == 4 ? -30 : 100 + i;
+            long time = T0 + i * 1_000L;
+            series.append(time, score);
+            expected.add(List.of(time, score));
+        }
+
+        assertEquals(200, series.size());
+        assertEquals(score, series.lastScore());
+        assertEquals(T0 + 199_000L, series.lastTime());
+        // Une tranche par milliseconde : chaque point est rendu tel quel
+        assertEquals(expected, points(series, T0, T0 + 199_000L, 199_000));
+    }
+
+    @Test
+    void testGapsTooLargeForADeltaBecomeKeyframes() {
+        ScoreSeries series = new ScoreSeries();
+        series.append(T0, 10);
+        // Écart de score hors des 24 bits signés
+        series.append(T0 + 1, 10 + (1L << 23));
+        series.append(T0 + 2, 10);
+        // Écart de temps hors des 40 bits
+        long far = T0 + (1L << 40) + 5;
+        series.append(far, 20);
+        series.append(far + 1, 25);
+
+        assertEquals(List.of(List.of(T0, 10L), List.of(T0 + 1, 10 + (1L << 23)), List.of(T0 + 2, 10L)),
+                points(series, T0, T0 + 2, 1_000));
+        assertEquals(List.of(List.of(far, 20L), List.of(far + 1, 25L)), points(series, far, far + 1, 1_000));
+    }
+
+    @Test
+    void testLatePointIsMovedToPreviousTime() {
+        ScoreSeries series = new ScoreSeries();
+        series.append(T0 + 5_000, 100);
+        series.append(T0 + 1_000, 150);
+
+        assertEquals(T0 + 5_000, series.lastTime());
+        assertEquals(List.of(List.of(T0 + 5_000, 150L)), points(series, T0, T0 + 10_000, 1));
+    }
+
+    @Test
+    void testDownsampleKeepsLastPointPerBucket() {
+        ScoreSeries series = new ScoreSeries();
+        for (int i = 0; i < 100; i++) {
+            series.append(T0 + i * 1_000L, i * 10L);
+        }
+
+        // 10 tranches de 10 s : le dernier point de chacune, plus le dernier point de la série
+        List<List<Long>> points = points(series, T0, T0 + 100_000L, 10);
+        assertEquals(10, points.size());
+        assertEquals(List.of(T0 + 9_000L, 90L), points.get(0));
+        assertEquals(List.of(T0 + 99_000L, 990L), points.get(9));
+    }
+
+    @Test
+    void testDownsampleStartsWithScoreReachedBeforeFrom() {
+        ScoreSeries series = new ScoreSeries();
+        for (int i = 0; i < 150; i++) {
+            series.append(T0 + i * 1_000L, i);
+        }
+
+        // Départ au milieu de la série, après un point de reprise
+        List<List<Long>> points = points(series, T0 + 100_500L, T0 + 102_000L, 1_000);
+        assertEquals(List.of(List.of(T0 + 100_500L, 100L), List.of(T0 + 101_000L, 101L), List.of(T0 + 102_000L, 102L)), points);
+        // Rien après from : seul le score atteint est rendu
+        assertEquals(List.of(List.of(T0 + 500_000L, 149L)), points(series, T0 + 500_000L, T0 + 600_000L, 10));
+    }
+}
@@ -0,0 +1,76 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreboardTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    private static List<String> emails(Scoreboard scoreboard) {
+        return scoreboard.top(10).stream().map(Scoreboard.Entry::email).toList();
+    }
+
+    @Test
+    void testOrderByScoreThenEarliestLastSolve() {
+        Scoreboard scoreboard = new Scoreboard();
+        scoreboard.join("a@x", "a");
+        scoreboard.join("b@x", "b");
+        scoreboard.join("c@x", "c");
+        scoreboard.addSolve("b@x", "b", 100, T0.plusSeconds(20));
+        scoreboard.addSolve("c@x", "c", 100, T0.plusSeconds(10));
+
+        assertEquals(List.of("c@x", "b@x", "a@x"), emails(scoreboard));
+        assertEquals(3, scoreboard.standingOf("a@x").rank());
+    }
+
+    @Test
+    void testLeaveRemovesFromBoard() {
+        Scoreboard scoreboard = new Scoreboard();
+        scoreboard.join("a@x", "a");
+        scoreboard.join("b@x", "b");
+        scoreboard.addSolve("a@x", "a", 100, T0);
+
+        assertTrue(scoreboard.leave("a@x"));
+        assertFalse(scoreboard.leave("a@x"));
+
+        assertEquals(1, scoreboard.size());
+        assertNull(scoreboard.standingOf("a@x"));
+        assertEquals(List.of("b@x"), emails(scoreboard));
+    }
+
+    @Test
+    void testSolveFromNonMemberIsNotRanked() {
+        Scoreboard scoreboard = new Scoreboard();
+        scoreboard.join("a@x", "a");
+
+        assertNull(scoreboard.addSolve("z@x", "z", 500, T0));
+        assertNull(scoreboard.adjust("z@x", -50));
+
+        assertEquals(1, scoreboard.size());
+        assertNull(scoreboard.standingOf("z@x"));
+    }
+
+    @Test
+    void testRejoinKeepsPointsEarnedOutsideBoard() {
+        // Même résultat qu'une reconstruction au démarrage : inscriptions d'abord, puis toutes les résolutions
+        Scoreboard scoreboard = new Scoreboard();
+        scoreboard.join("a@x", "a");
+        scoreboard.addSolve("a@x", "a", 100, T0);
+        scoreboard.leave("a@x");
+        scoreboard.addSolve("a@x", "a", 200, T0.plusSeconds(60));
+        scoreboard.adjust("a@x", -20);
+        scoreboard.join("a@x", "a");
+
+        Scoreboard.Entry entry = scoreboard.standingOf("a@x").entry();
+        assertEquals(280, entry.score());
+        assertEquals(T0.plusSeconds(60), entry.lastSolveAt());
+    }
+}
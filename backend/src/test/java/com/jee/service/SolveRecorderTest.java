@@ -0,0 +1,32 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveRecorderTest {
+
+    private static RuntimeException wrapped(SQLException sql) {
+        return new RuntimeException("commit", new IllegalStateException("flush", sql));
+    }
+
+    @Test
+    void testConnectionAndLockErrorsAreRetried() {
+        assertTrue(SolveRecorder.isTransient(wrapped(new SQLException("connexion perdue", "08006"))));
+        assertTrue(SolveRecorder.isTransient(wrapped(new SQLException("interblocage", "40P01"))));
+        assertTrue(SolveRecorder.isTransient(wrapped(new SQLException("arrêt", "57P01"))));
+        // Délai d'obtention d'une connexion du pool : pas de SQLSTATE
+        assertTrue(SolveRecorder.isTransient(wrapped(new SQLException("acquisition timeout"))));
+        // Rollback de la transaction sans erreur SQL (délai de la transaction dépassé)
+        assertTrue(SolveRecorder.isTransient(new IllegalStateException("transaction expirée")));
+    }
+
+    @Test
+    void testDataErrorsIsolateTheRow() {
+        assertFalse(SolveRecorder.isTransient(wrapped(new SQLException("clé dupliquée", "23505"))));
+        assertFalse(SolveRecorder.isTransient(wrapped(new SQLException("valeur trop longue", "22001"))));
+    }
+}
@@ -0,0 +1,177 @@
+package com.jee.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionJournalTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private SubmissionJournal open(int segmentRecords) throws IOException {
+        SubmissionJournal journal = new SubmissionJournal();
+        journal.directory = directory;
+        journal.segmentRecords = segmentRecords;
+        journal.retainedSegments = 1;
+        journal.onStart(null);
+        return journal;
+    }
+
+    private static List<SubmissionJournal.Entry> replay(SubmissionJournal journal, long afterSeq) throws IOException {
+        List<SubmissionJournal.Entry> entries = new ArrayList<>();
+        journal.replay(afterSeq, entries::add);
+        return entries;
+    }
+
+    private static List<Long> seqs(List<SubmissionJournal.Entry> entries) {
+        return entries.stream().map(SubmissionJournal.Entry::seq).toList();
+    }
+
+    private static long solve(SubmissionJournal journal, int i) {
+        return journal.solve((long) i, 7L, "joueur" + i + "@ctf.local", "joueur" + i, 100 + i, T0.plusSeconds(i), i);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    // Modifie un octet d'un enregistrement sur le disque, comme une écriture interrompue
+    private static void damage(Path segment, int record) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = (long) record * SubmissionJournal.RECORD_SIZE + 100;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x5A)).rewind();
+            channel.write(one, position);
+        }
+    }
+
+    @Test
+    void testRecordRoundTrip() throws IOException {
+        SubmissionJournal journal = open(16);
+        journal.submission(3L, null, "a@ctf.local", false);
+        long seq = journal.solve(3L, 7L, "a@ctf.local", "alice", 250, T0, 2);
+
+        assertEquals(2, seq);
+        assertEquals(2, journal.lastSeq());
+        List<SubmissionJournal.Entry> entries = replay(journal, 0);
+        assertEquals(2, entries.size());
+
+        SubmissionJournal.Entry submission = entries.get(0);
+        assertEquals(SubmissionJournal.SUBMIT, submission.type());
+        assertFalse(submission.correct());
+        assertNull(submission.ctfId());
+        assertNull(submission.pseudo());
+
+        SubmissionJournal.Entry solve = entries.get(1);
+        assertEquals(new SubmissionJournal.Entry(SubmissionJournal.SOLVE, true, 2, T0, 3L, 7L, 250, "a@ctf.local", "alice", 2), solve);
+    }
+
+    @Test
+    void testRolloverAndReplayAcrossSegments() throws IOException {
+        SubmissionJournal journal = open(4);
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, solve(journal, i));
+        }
+
+        assertEquals(3, segments().size());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), seqs(replay(journal, 0)));
+        // Le premier segment n'est pas relu, le second l'est à partir de la séquence 6
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), seqs(replay(journal, 5)));
+        assertEquals(List.of(), seqs(replay(journal, 10)));
+    }
+
+    @Test
+    void testCorruptedRecordIsSkipped() throws IOException {
+        SubmissionJournal journal = open(8);
+        for (int i = 1; i <= 5; i++) {
+            solve(journal, i);
+        }
+        journal.onStop(null);
+        damage(segments().get(0), 2);
+
+        List<SubmissionJournal.Entry> entries = new ArrayList<>();
+        SubmissionJournal.ReplayStats stats = journal.replay(entries::add);
+        assertEquals(List.of(1L, 2L, 4L, 5L), seqs(entries));
+        assertEquals(4, stats.records);
+        assertEquals(1, stats.corrupted);
+    }
+
+    @Test
+    void testRestartOverwritesTruncatedLastRecord() throws IOException {
+        SubmissionJournal journal = open(8);
+        for (int i = 1; i <= 3; i++) {
+            solve(journal, i);
+        }
+        journal.onStop(null);
+        damage(segments().get(0), 2);
+
+        SubmissionJournal restarted = open(8);
+        assertEquals(2, restarted.lastSeq());
+        assertEquals(3, solve(restarted, 30));
+
+        List<SubmissionJournal.Entry> entries = replay(restarted, 0);
+        assertEquals(List.of(1L, 2L, 3L), seqs(entries));
+        assertEquals(30L, entries.get(2).defiId());
+    }
+
+    @Test
+    void testRestartWithEmptyLastSegmentKeepsSequence() throws IOException {
+        SubmissionJournal journal = open(4);
+        for (int i = 1; i <= 4; i++) {
+            solve(journal, i);
+        }
+        journal.onStop(null);
+        // Arrêt juste après le changement de segment : le dernier est vide
+        Files.write(directory.resolve("segment-00000002.journal"), new byte[4 * SubmissionJournal.RECORD_SIZE]);
+
+        SubmissionJournal restarted = open(4);
+        assertEquals(4, restarted.lastSeq());
+        assertEquals(5, solve(restarted, 5));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), seqs(replay(restarted, 0)));
+        assertEquals(List.of(5L), seqs(replay(restarted, 4)));
+    }
+
+    @Test
+    void testReleaseDeletesOnlyPersistedClosedSegments() throws IOException {
+        SubmissionJournal journal = open(4);
+        for (int i = 1; i <= 17; i++) {
+            solve(journal, i);
+        }
+        // Segments : 1-4, 5-8, 9-12, 13-16, 17 (courant)
+        assertEquals(5, segments().size());
+
+        // Le segment 5-8 contient encore des séquences non écrites en base
+        assertEquals(1, journal.releaseUpTo(6));
+        assertEquals(4, segments().size());
+        assertEquals(List.of(5L, 6L, 7L, 8L), seqs(replay(journal, 0)).subList(0, 4));
+
+        // Tout est écrit : le dernier segment fermé est gardé, comme le segment courant
+        assertEquals(2, journal.releaseUpTo(17));
+        assertEquals(2, segments().size());
+        assertEquals(List.of(13L, 14L, 15L, 16L, 17L), seqs(replay(journal, 0)));
+
+        journal.onStop(null);
+        assertEquals(17, open(4).lastSeq());
+    }
+}
@@ -1,10 +1,9 @@
 import React, { useEffect, useState } from 'react';
-import axios from 'axios';
 import { Card, CardHeader, CardTitle, CardContent } from "@/components/ui/card.jsx";
 import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { Users, CheckCircle, XCircle, Clock, Search } from "lucide-react";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const ParticipantsManagement = ({ mode = "single", ctfId = null }) => {
     const [participations, setParticipations] = useState([]);
@@ -28,7 +27,7 @@ const ParticipantsManagement = ({ mode = "single", ctfId = null }) => {
         setError('');
 
         try {
-            const participationsResponse = await axios.get(
+            const participationsResponse = await getAllPages(
                 buildApiUrl(`/ctfs/${ctfId}/participations?filter=ALL`),
                 { headers: { Authorization: `Bearer ${token}` } }
             );
@@ -1,3 +1,5 @@
+import axios from 'axios';
+
 // Configuration API centralisée
 const API_BASE_URL = import.meta.env.VITE_API_URL || '/api';
 
@@ -13,4 +15,19 @@ export const buildApiUrl = (endpoint) => {
     return `${API_CONFIG.BASE_URL}/${cleanEndpoint}`;
 };
 
+// Les listes paginées renvoient la page suivante dans l'en-tête X-Next-Cursor
+export const getAllPages = async (url, config = {}) => {
+    const items = [];
+    let cursor = null;
+    do {
+        const response = await axios.get(url, {
+            ...config,
+            params: { ...config.params, limit: 200, ...(cursor ? { cursor } : {}) },
+        });
+        items.push(...(response.data || []));
+        cursor = response.headers['x-next-cursor'] || null;
+    } while (cursor);
+    return { data: items };
+};
+
 export default API_CONFIG;
@@ -23,12 +23,16 @@ const Conversation = () => {
     const navigate = useNavigate();
     const token = localStorage.getItem("token");
     const messagesEndRef = useRef(null);
+    const keepScrollRef = useRef(false);
 
     const [conversation, setConversation] = useState(null);
     const [messages, setMessages] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
     const [userEmail, setUserEmail] = useState('');
+    // Curseur des messages plus anciens (null quand tout l'historique est chargé)
+    const [olderCursor, setOlderCursor] = useState(null);
+    const [loadingOlder, setLoadingOlder] = useState(false);
 
     const [newMessage, setNewMessage] = useState('');
     const [sending, setSending] = useState(false);
@@ -68,6 +72,11 @@ const Conversation = () => {
     }, [token, navigate, conversationId]);
 
     useEffect(() => {
+        // Pas de défilement vers le bas quand on ajoute des messages plus anciens en haut
+        if (keepScrollRef.current) {
+            keepScrollRef.current = false;
+            return;
+        }
         scrollToBottom();
     }, [messages]);
 
@@ -87,6 +96,7 @@ const Conversation = () => {
 
             setConversation(response.data);
             setMessages(response.data.messages || []);
+            setOlderCursor(response.data.nextCursor || null);
         } catch (err) {
             console.error('Erreur récupération conversation:', err);
             setError(err.response?.data?.message || 'Erreur lors de la récupération de la conversation');
@@ -95,6 +105,32 @@ const Conversation = () => {
         }
     };
 
+    const loadOlderMessages = async () => {
+        if (!olderCursor || loadingOlder) return;
+
+        setLoadingOlder(true);
+        setError('');
+
+        try {
+            const response = await axios.get(
+                buildApiUrl(`/messaging/conversations/${conversationId}/messages`),
+                {
+                    params: { before: olderCursor },
+                    headers: { Authorization: `Bearer ${token}` }
+                }
+            );
+
+            keepScrollRef.current = true;
+            setMessages(previous => [...response.data, ...previous]);
+            setOlderCursor(response.headers['x-next-cursor'] || null);
+        } catch (err) {
+            console.error('Erreur récupération messages précédents:', err);
+            setError(err.response?.data?.message || 'Erreur lors de la récupération des messages précédents');
+        } finally {
+            setLoadingOlder(false);
+        }
+    };
+
     const sendMessage = async (e) => {
         e.preventDefault();
 
@@ -244,6 +280,13 @@ const Conversation = () => {
             {/* Zone des messages */}
             <Card className="border-border flex-1 flex flex-col overflow-hidden">
                 <CardContent className="flex-1 overflow-y-auto p-4 space-y-6">
+                    {olderCursor && (
+                        <div className="flex justify-center">
+                            <Button variant="outline" size="sm" onClick={loadOlderMessages} disabled={loadingOlder}>
+                                {loadingOlder ? 'Chargement...' : 'Charger les messages précédents'}
+                            </Button>
+                        </div>
+                    )}
                     {messages.length === 0 ? (
                         <div className="flex flex-col items-center justify-center h-full text-center">
                             <div className="p-6 bg-secondary rounded-full mb-4">
@@ -7,7 +7,7 @@ import { Card, CardHeader, CardTitle, CardContent } from "@/components/ui/card";
 import { Button } from "@/components/ui/button";
 import { Input } from "@/components/ui/input";
 import { MessageSquare, Search, Plus, User, ShieldAlert, X } from "lucide-react";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const CONVERSATIONS_PER_PAGE = 10;
 
@@ -86,17 +86,17 @@ const Messaging = () => {
 
             // Si admin, utiliser l'endpoint qui récupère tout le monde
             if (userRole === 'ADMINISTRATEUR') {
-                const response = await axios.get(buildApiUrl('/users/getall/admin'), {
+                const response = await getAllPages(buildApiUrl('/users/getall/admin'), {
                     headers: { Authorization: `Bearer ${token}` }
                 });
                 allUsers = response.data || [];
             } else {
                 // Pour les autres rôles, récupérer participants et organisateurs
                 const [participantsRes, organisateursRes] = await Promise.all([
-                    axios.get(buildApiUrl('/users/getall/participants'), {
+                    getAllPages(buildApiUrl('/users/getall/participants'), {
                         headers: { Authorization: `Bearer ${token}` }
                     }),
-                    axios.get(buildApiUrl('/users/getall/organisateurs'), {
+                    getAllPages(buildApiUrl('/users/getall/organisateurs'), {
                         headers: { Authorization: `Bearer ${token}` }
                     })
                 ]);
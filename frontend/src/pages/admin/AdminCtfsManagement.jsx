@@ -6,7 +6,7 @@ import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { MapPin, Eye, Edit2, Trash2, CheckCircle, X, Users } from "lucide-react";
 import Pagination from "@/components/common/Pagination.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const ITEMS_PER_PAGE = 10;
 
@@ -39,13 +39,13 @@ const AdminCtfsManagement = () => {
         const token = localStorage.getItem("token");
         try {
             const [actifs, enAttente, inactifs] = await Promise.all([
-                axios.get(buildApiUrl("/ctfs/list/actif"), {
+                getAllPages(buildApiUrl("/ctfs/list/actif"), {
                     headers: { Authorization: `Bearer ${token}` },
                 }),
-                axios.get(buildApiUrl("/ctfs/list/en_attente"), {
+                getAllPages(buildApiUrl("/ctfs/list/en_attente"), {
                     headers: { Authorization: `Bearer ${token}` },
                 }),
-                axios.get(buildApiUrl("/ctfs/list/inactif"), {
+                getAllPages(buildApiUrl("/ctfs/list/inactif"), {
                     headers: { Authorization: `Bearer ${token}` },
                 }),
             ]);
@@ -1,13 +1,12 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { jwtDecode } from 'jwt-decode';
-import axios from 'axios';
 import { Card, CardHeader, CardTitle, CardContent, CardFooter } from "@/components/ui/card.jsx";
 import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { Users, ArrowLeft, Crown, Search, Eye, AlertCircle } from "lucide-react";
 import Pagination from "@/components/common/Pagination.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const TEAMS_PER_PAGE = 12;
 
@@ -52,7 +51,7 @@ const AdminTeams = () => {
         setError('');
 
         try {
-            const response = await axios.get(buildApiUrl('/equipes/all'), {
+            const response = await getAllPages(buildApiUrl('/equipes/all'), {
                 headers: { Authorization: `Bearer ${token}` }
             });
 
@@ -5,7 +5,7 @@ import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { Ban, User, Mail, Shield } from "lucide-react";
 import Pagination from "@/components/common/Pagination.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const ITEMS_PER_PAGE = 10;
 
@@ -31,7 +31,7 @@ const AdminUsersManagement = () => {
     const fetchAllUsers = async () => {
         const token = localStorage.getItem("token");
         try {
-            const response = await axios.get(buildApiUrl("/users/getall/admin"), {
+            const response = await getAllPages(buildApiUrl("/users/getall/admin"), {
                 headers: { Authorization: `Bearer ${token}` },
             });
 
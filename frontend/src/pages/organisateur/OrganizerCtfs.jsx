@@ -6,7 +6,7 @@ import { Card, CardHeader, CardTitle, CardContent, CardFooter } from "@/componen
 import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { ShieldAlert, Trophy, ArrowLeft, MapPin, Eye, Edit2, Trash2, X, Plus, Users } from "lucide-react";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const OrganizerCtfs = () => {
     const navigate = useNavigate();
@@ -58,13 +58,13 @@ const OrganizerCtfs = () => {
         const fetchCtfs = async () => {
             try {
                 const [actifs, enAttente, inactifs] = await Promise.all([
-                    axios.get(buildApiUrl("/ctfs/list/actif"), {
+                    getAllPages(buildApiUrl("/ctfs/list/actif"), {
                         headers: { Authorization: `Bearer ${token}` },
                     }),
-                    axios.get(buildApiUrl("/ctfs/list/en_attente"), {
+                    getAllPages(buildApiUrl("/ctfs/list/en_attente"), {
                         headers: { Authorization: `Bearer ${token}` },
                     }),
-                    axios.get(buildApiUrl("/ctfs/list/inactif"), {
+                    getAllPages(buildApiUrl("/ctfs/list/inactif"), {
                         headers: { Authorization: `Bearer ${token}` },
                     }),
                 ]);
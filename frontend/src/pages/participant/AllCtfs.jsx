@@ -1,12 +1,11 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import axios from 'axios';
 import { MapPin, Eye, SortAsc, SortDesc } from "lucide-react";
 import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { Card, CardHeader, CardTitle, CardContent, CardFooter } from "@/components/ui/card.jsx";
 import Pagination from "@/components/common/Pagination.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const ITEMS_PER_PAGE = 12;
 
@@ -27,7 +26,7 @@ const AllCtfs = () => {
             return;
         }
 
-        axios.get(buildApiUrl('/ctfs/list/actif'), { headers: { Authorization: `Bearer ${token}` } })
+        getAllPages(buildApiUrl('/ctfs/list/actif'), { headers: { Authorization: `Bearer ${token}` } })
             .then(res => setAllCtfs(res.data || []))
             .catch(err => {
                 console.error("Erreur", err);
@@ -1,13 +1,12 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import axios from 'axios';
 import { useAuth } from '@/hooks/useAuth';
 import { Card, CardHeader, CardTitle, CardContent } from "@/components/ui/card.jsx";
 import { Button } from "@/components/ui/button.jsx";
 import { Input } from "@/components/ui/input.jsx";
 import { Trophy, Search, ArrowLeft, Target, Award, Star, Plus } from "lucide-react";
 import Pagination from "@/components/common/Pagination.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const DEFIS_URL = buildApiUrl("/defis/all");
 const ITEMS_PER_PAGE = 12;
@@ -39,7 +38,7 @@ const AllDefis = () => {
         setError('');
 
         try {
-            const response = await axios.get(DEFIS_URL, {
+            const response = await getAllPages(DEFIS_URL, {
                 headers: { Authorization: `Bearer ${token}` }
             });
             setAllDefis(response.data || []);
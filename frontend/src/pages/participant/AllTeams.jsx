@@ -8,7 +8,7 @@ import { Input } from "@/components/ui/input.jsx";
 import { Users, ArrowLeft, Crown, Search, Send } from "lucide-react";
 import Pagination from "@/components/common/Pagination.jsx";
 import ConfirmDialog from "@/components/common/ConfirmDialog.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const TEAMS_PER_PAGE = 12;
 
@@ -59,7 +59,7 @@ const AllTeams = () => {
         setError('');
 
         try {
-            const response = await axios.get(buildApiUrl('/equipes/all'), {
+            const response = await getAllPages(buildApiUrl('/equipes/all'), {
                 headers: { Authorization: `Bearer ${token}` }
             });
 
@@ -5,7 +5,7 @@ import { jwtDecode } from "jwt-decode";
 import { Button } from "@/components/ui/button.jsx";
 import { Card, CardHeader, CardTitle, CardContent, CardFooter } from "@/components/ui/card.jsx";
 import { MapPin, Eye, Send, MessageSquare, ArrowLeft, LogIn, LogOut } from "lucide-react";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const CtfDetail = () => {
     const navigate = useNavigate();
@@ -67,7 +67,7 @@ const CtfDetail = () => {
 
         // Récupérer les commentaires
         try {
-            const commentsResponse = await axios.get(buildApiUrl(`/comments/ctf/${id}`), {
+            const commentsResponse = await getAllPages(buildApiUrl(`/comments/ctf/${id}`), {
                 headers: { Authorization: `Bearer ${token}` }
             });
             setComments(commentsResponse.data || []);
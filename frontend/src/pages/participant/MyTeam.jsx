@@ -6,7 +6,7 @@ import { Card, CardHeader, CardTitle, CardContent, CardFooter } from "@/componen
 import { Button } from "@/components/ui/button.jsx";
 import { Users, Plus, ArrowLeft, Crown, Mail, LogOut, UserX, UserCog, AlertCircle, Bell } from "lucide-react";
 import ConfirmDialog from "@/components/common/ConfirmDialog.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const MyTeam = () => {
     const navigate = useNavigate();
@@ -35,7 +35,7 @@ const MyTeam = () => {
         setError('');
 
         try {
-            const response = await axios.get(buildApiUrl('/equipes/all'), {
+            const response = await getAllPages(buildApiUrl('/equipes/all'), {
                 headers: { Authorization: `Bearer ${token}` }
             });
 
@@ -6,7 +6,7 @@ import { Card, CardHeader, CardTitle, CardContent } from "@/components/ui/card.j
 import { Button } from "@/components/ui/button.jsx";
 import { ArrowLeft, Check, X, Mail, User, Clock, AlertCircle } from "lucide-react";
 import ConfirmDialog from "@/components/common/ConfirmDialog.jsx";
-import { buildApiUrl } from '@/config/api';
+import { buildApiUrl, getAllPages } from '@/config/api';
 
 const TeamRequests = () => {
     const navigate = useNavigate();
@@ -48,7 +48,7 @@ const TeamRequests = () => {
 
         try {
             // Récupérer toutes les équipes pour trouver celle de l'utilisateur
-            const teamsResponse = await axios.get(buildApiUrl('/equipes/all'), {
+            const teamsResponse = await getAllPages(buildApiUrl('/equipes/all'), {
                 headers: { Authorization: `Bearer ${token}` }
             });
 